@@ -0,0 +1,5 @@
+@echo off
+rem Starts SensorUI on the bundled runtime. The JVM creates the class data sharing archive on the
+rem first launch (or after an update) and maps it on every later one. Extra JVM options: SENSORUI_OPTS.
+set "DIR=%~dp0.."
+"%DIR%\bin\java" %SENSORUI_OPTS% -XX:SharedArchiveFile="%DIR%\app\sensorui.jsa" -XX:+AutoCreateSharedArchive -jar "%DIR%\app\sensorui.jar" %*
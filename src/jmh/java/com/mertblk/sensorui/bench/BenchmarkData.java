@@ -0,0 +1,114 @@
+package com.mertblk.sensorui.bench;
+
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.PendingReading;
+import com.mertblk.sensorui.model.SensorData;
+import com.mertblk.sensorui.serial.BinaryFrame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates reproducible datasets for the benchmarks: CSV line and binary frame streams as the
+ * device sends them and SQLite databases with a configurable number of rows spread over several sessions.
+ */
+final class BenchmarkData {
+
+    static final int SESSION_COUNT = 20;
+    private static final int INSERT_CHUNK = 5_000;
+
+    private BenchmarkData() {
+    }
+
+    static SensorData randomReading(Random random) {
+        SensorData data = new SensorData();
+        data.setTemperature(20 + random.nextInt(100) / 10f);
+        data.setHumidity(random.nextInt(100));
+        data.setLight(random.nextInt(2));
+        data.setFire(random.nextInt(2));
+        data.setS1(random.nextInt(2));
+        data.setS2(random.nextInt(2));
+        data.setSa(random.nextInt(2));
+        return data;
+    }
+
+    static byte[] csvLines(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder lines = new StringBuilder(count * 32);
+        for (int i = 0; i < count; i++) {
+            lines.append(String.format(Locale.US, "DUMMY,%.1f,%d,%.1f,%d,%d,%d,%d\n",
+                    20 + random.nextFloat() * 10, random.nextInt(2), random.nextFloat() * 100,
+                    random.nextInt(2), random.nextInt(2), random.nextInt(2), random.nextInt(2)));
+        }
+        return lines.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static byte[] binaryFrames(int count, long seed) {
+        Random random = new Random(seed);
+        byte[] frames = new byte[count * BinaryFrame.FRAME_LENGTH];
+        for (int i = 0; i < count; i++) {
+            BinaryFrame.encode(i, randomReading(random), frames, i * BinaryFrame.FRAME_LENGTH);
+        }
+        return frames;
+    }
+
+    static String sessionId(int index) {
+        return "Session-" + index;
+    }
+
+    static Path newDatabaseFile() throws IOException {
+        return Files.createTempDirectory("sensorui-bench").resolve("sensor_data.db");
+    }
+
+    static DatabaseManager open(Path file) {
+        DatabaseManager database = new DatabaseManager("jdbc:sqlite:" + file);
+        database.initializeDatabase();
+        return database;
+    }
+
+    /**
+     * Creates a database holding {@code rows} readings, one second apart, spread evenly over
+     * {@link #SESSION_COUNT} consecutive sessions.
+     */
+    static Path createDatabase(int rows) throws IOException {
+        Path file = newDatabaseFile();
+        try (DatabaseManager database = open(file)) {
+            Random random = new Random(42);
+            long start = System.currentTimeMillis() - rows * 1000L;
+            int rowsPerSession = Math.max(1, rows / SESSION_COUNT);
+            List<PendingReading> chunk = new ArrayList<>(INSERT_CHUNK);
+            for (int i = 0; i < rows; i++) {
+                int session = Math.min(i / rowsPerSession, SESSION_COUNT - 1);
+                chunk.add(new PendingReading(sessionId(session), "bench-device", start + i * 1000L,
+                        (i % rowsPerSession), randomReading(random), 0));
+                if (chunk.size() == INSERT_CHUNK) {
+                    database.saveSensorDataBatch(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                database.saveSensorDataBatch(chunk);
+            }
+        }
+        return file;
+    }
+
+    static void delete(Path file) throws IOException {
+        if (file == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(file.getParent())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.mertblk.sensorui.bench;
+
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.export.ExportFormat;
+import com.mertblk.sensorui.export.SensorReadingWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming export of a database cursor in each format, as done by the export dialog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"EXCEL", "CSV", "CSV_GZIP", "NDJSON"})
+    public ExportFormat format;
+
+    private Path file;
+    private DatabaseManager database;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.createDatabase(rows);
+        database = BenchmarkData.open(file);
+        output = file.resolveSibling("export" + format.getExtension());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+        BenchmarkData.delete(file);
+    }
+
+    @Benchmark
+    public long export() throws IOException, SQLException {
+        try (SensorReadingWriter writer = format.open(output)) {
+            database.forEachSensorReading("WHERE 1=1 ", List.of(), reading -> {
+                writer.write(reading);
+                return true;
+            });
+            writer.finish();
+        }
+        return Files.size(output);
+    }
+}
@@ -0,0 +1,59 @@
+package com.mertblk.sensorui.bench;
+
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.PendingReading;
+import com.mertblk.sensorui.model.SensorData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One commit per row against one transaction per batch, per inserted row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(InsertBenchmark.ROWS)
+public class InsertBenchmark {
+
+    static final int ROWS = 100;
+
+    private Path file;
+    private DatabaseManager database;
+    private final List<PendingReading> batch = new ArrayList<>(ROWS);
+    private SensorData reading;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.newDatabaseFile();
+        database = BenchmarkData.open(file);
+        reading = BenchmarkData.randomReading(new Random(1));
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new PendingReading("bench", "bench-device", now + i, i, reading, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+        BenchmarkData.delete(file);
+    }
+
+    @Benchmark
+    public void singleRow() {
+        for (int i = 0; i < ROWS; i++) {
+            database.saveSensorData("bench", "bench-device", i, reading);
+        }
+    }
+
+    @Benchmark
+    public long batched() {
+        return database.saveSensorDataBatch(batch);
+    }
+}
@@ -0,0 +1,73 @@
+package com.mertblk.sensorui.bench;
+
+import com.mertblk.sensorui.model.SensorData;
+import com.mertblk.sensorui.serial.BinaryFrameParser;
+import com.mertblk.sensorui.serial.FrameDecoder;
+import com.mertblk.sensorui.serial.SensorLineParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serial frame decoding without the FX-bound model updates: the byte-level CSV parser against the
+ * original readLine/String.split/parseFloat path, and the binary frame decoder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(LineParseBenchmark.LINES)
+public class LineParseBenchmark {
+
+    static final int LINES = 10_000;
+
+    private byte[] payload;
+    private byte[] binaryPayload;
+    private final SensorData target = new SensorData();
+
+    @Setup
+    public void setUp() {
+        payload = BenchmarkData.csvLines(LINES, 7);
+        binaryPayload = BenchmarkData.binaryFrames(LINES, 7);
+    }
+
+    @Benchmark
+    public void byteParser(Blackhole blackhole) throws IOException {
+        SensorLineParser parser = new SensorLineParser(new ByteArrayInputStream(payload));
+        while (parser.next(target) != FrameDecoder.Result.END_OF_STREAM) {
+            blackhole.consume(target.getTemperature());
+        }
+    }
+
+    @Benchmark
+    public void binaryParser(Blackhole blackhole) throws IOException {
+        BinaryFrameParser parser = new BinaryFrameParser(new ByteArrayInputStream(binaryPayload));
+        while (parser.next(target) != FrameDecoder.Result.END_OF_STREAM) {
+            blackhole.consume(target.getTemperature());
+        }
+    }
+
+    @Benchmark
+    public void stringSplit(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                SensorData data = new SensorData();
+                data.setTemperature(Float.parseFloat(parts[1]));
+                data.setFire(Integer.parseInt(parts[2]));
+                data.setHumidity((int) Float.parseFloat(parts[3]));
+                data.setLight(Integer.parseInt(parts[4]));
+                data.setS1(Integer.parseInt(parts[5]));
+                data.setS2(Integer.parseInt(parts[6]));
+                data.setSa(Integer.parseInt(parts[7]));
+                blackhole.consume(data);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.mertblk.sensorui.bench;
+
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.ReadingCount;
+import com.mertblk.sensorui.model.SensorReading;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths used by the records window on small and large tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private Path file;
+    private DatabaseManager database;
+    private List<Object> sessionParams;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.createDatabase(rows);
+        database = BenchmarkData.open(file);
+        sessionParams = List.of(BenchmarkData.sessionId(BenchmarkData.SESSION_COUNT / 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+        BenchmarkData.delete(file);
+    }
+
+    @Benchmark
+    public List<SensorReading> sessionReadings() {
+        return database.getSensorReadings("WHERE session_id = ? ORDER BY timestamp DESC", sessionParams);
+    }
+
+    @Benchmark
+    public List<SensorReading> firstPage() {
+        return database.getSensorReadingsPage("WHERE 1=1 ", List.of(), null, 200);
+    }
+
+    @Benchmark
+    public ReadingCount sessionCount() {
+        return database.countSensorReadings("WHERE session_id = ? ", sessionParams);
+    }
+
+    @Benchmark
+    public List<String> distinctSessionIds() {
+        return database.getDistinctSessionIds();
+    }
+}
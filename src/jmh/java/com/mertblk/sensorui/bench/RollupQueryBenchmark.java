@@ -0,0 +1,59 @@
+package com.mertblk.sensorui.bench;
+
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.RollupBucket;
+import com.mertblk.sensorui.model.SensorReading;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long trend windows: the rollup query the dashboard uses against reading the raw rows of the
+ * same range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RollupQueryBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int MAX_BUCKETS = 1_500;
+    private static final String DEVICE_ID = "bench-device";
+
+    @Param({"86400000", "604800000"})
+    public long windowMillis;
+
+    private Path file;
+    private DatabaseManager database;
+    private long fromMillis;
+    private long toMillis;
+    private List<Object> rangeParams;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.createDatabase(ROWS);
+        database = BenchmarkData.open(file);
+        toMillis = System.currentTimeMillis();
+        fromMillis = toMillis - windowMillis;
+        rangeParams = List.of(DEVICE_ID, fromMillis, toMillis);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+        BenchmarkData.delete(file);
+    }
+
+    @Benchmark
+    public List<RollupBucket> rollups() {
+        return database.getRollups(DEVICE_ID, fromMillis, toMillis, MAX_BUCKETS);
+    }
+
+    @Benchmark
+    public List<SensorReading> rawReadings() {
+        return database.getSensorReadings("WHERE device_id = ? AND timestamp >= ? AND timestamp < ? ", rangeParams);
+    }
+}
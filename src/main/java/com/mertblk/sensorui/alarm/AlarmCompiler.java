@@ -0,0 +1,118 @@
+package com.mertblk.sensorui.alarm;
+
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorData;
+
+import java.util.List;
+
+/**
+ * Compiles conditions into {@link CompiledCondition}s, handing out a latch slot to every threshold.
+ * The field access, comparison direction and combination shape are all fixed at compile time, so
+ * evaluating a reading reads primitives and compares floats without branching on the rule's
+ * description or allocating.
+ */
+final class AlarmCompiler {
+
+    @FunctionalInterface
+    private interface ChannelReader {
+        float read(SensorData data);
+    }
+
+    private int latchCount = 0;
+
+    CompiledCondition compile(AlarmCondition condition) {
+        return switch (condition) {
+            case AlarmCondition.Threshold threshold -> threshold(threshold);
+            case AlarmCondition.AllOf allOf -> allOf(compileAll(allOf.conditions()));
+            case AlarmCondition.AnyOf anyOf -> anyOf(compileAll(anyOf.conditions()));
+        };
+    }
+
+    /**
+     * Number of latch slots handed out so far, i.e. the size of a device's latch array.
+     */
+    int getLatchCount() {
+        return latchCount;
+    }
+
+    private CompiledCondition threshold(AlarmCondition.Threshold threshold) {
+        ChannelReader reader = reader(threshold.channel());
+        int latch = latchCount++;
+        float trip = threshold.level();
+        if (threshold.above()) {
+            float clear = trip - threshold.hysteresis();
+            return (data, latches) -> {
+                float value = reader.read(data);
+                boolean holds = value > (latches[latch] ? clear : trip);
+                latches[latch] = holds;
+                return holds;
+            };
+        }
+        float clear = trip + threshold.hysteresis();
+        return (data, latches) -> {
+            float value = reader.read(data);
+            boolean holds = value < (latches[latch] ? clear : trip);
+            latches[latch] = holds;
+            return holds;
+        };
+    }
+
+    // Children are combined with the non-short-circuit operators so every threshold sees every
+    // reading and its latch stays current.
+
+    private static CompiledCondition allOf(CompiledCondition[] children) {
+        if (children.length == 1) {
+            return children[0];
+        }
+        if (children.length == 2) {
+            CompiledCondition first = children[0];
+            CompiledCondition second = children[1];
+            return (data, latches) -> first.test(data, latches) & second.test(data, latches);
+        }
+        return (data, latches) -> {
+            boolean holds = true;
+            for (CompiledCondition child : children) {
+                holds &= child.test(data, latches);
+            }
+            return holds;
+        };
+    }
+
+    private static CompiledCondition anyOf(CompiledCondition[] children) {
+        if (children.length == 1) {
+            return children[0];
+        }
+        if (children.length == 2) {
+            CompiledCondition first = children[0];
+            CompiledCondition second = children[1];
+            return (data, latches) -> first.test(data, latches) | second.test(data, latches);
+        }
+        return (data, latches) -> {
+            boolean holds = false;
+            for (CompiledCondition child : children) {
+                holds |= child.test(data, latches);
+            }
+            return holds;
+        };
+    }
+
+    private CompiledCondition[] compileAll(List<AlarmCondition> conditions) {
+        CompiledCondition[] compiled = new CompiledCondition[conditions.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compile(conditions.get(i));
+        }
+        return compiled;
+    }
+
+    private static ChannelReader reader(SensorChannel channel) {
+        return switch (channel) {
+            case TEMPERATURE -> SensorData::getTemperature;
+            case HUMIDITY -> SensorData::getHumidity;
+            case LIGHT -> SensorData::getLight;
+            case FIRE -> SensorData::getFire;
+            case SOUND_1 -> SensorData::getS1;
+            case SOUND_2 -> SensorData::getS2;
+            case SOUND_ALARM -> SensorData::getSa;
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.mertblk.sensorui.alarm;
+
+import com.mertblk.sensorui.model.SensorChannel;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What has to be true of a reading for an {@link AlarmRule} to fire: a threshold on one channel,
+ * or a combination of other conditions. Conditions are plain descriptions; {@link AlarmEngine}
+ * compiles them before evaluating anything.
+ */
+public sealed interface AlarmCondition {
+
+    /**
+     * The condition holds while {@code channel} is above {@code level} (or below it if {@code above}
+     * is false). Once it holds, it only stops holding when the value is back on the other side of
+     * {@code level} by more than {@code hysteresis}, so a value hovering around the level does not
+     * toggle the alarm.
+     */
+    record Threshold(SensorChannel channel, boolean above, float level, float hysteresis) implements AlarmCondition {
+
+        public Threshold {
+            if (hysteresis < 0 || Float.isNaN(hysteresis) || Float.isNaN(level)) {
+                throw new IllegalArgumentException("Invalid threshold: " + level + " with hysteresis " + hysteresis);
+            }
+        }
+
+        @Override
+        public Set<SensorChannel> channels() {
+            return EnumSet.of(channel);
+        }
+    }
+
+    record AllOf(List<AlarmCondition> conditions) implements AlarmCondition {
+
+        public AllOf {
+            conditions = List.copyOf(conditions);
+            if (conditions.isEmpty()) {
+                throw new IllegalArgumentException("AllOf needs at least one condition");
+            }
+        }
+
+        @Override
+        public Set<SensorChannel> channels() {
+            return channelsOf(conditions);
+        }
+    }
+
+    record AnyOf(List<AlarmCondition> conditions) implements AlarmCondition {
+
+        public AnyOf {
+            conditions = List.copyOf(conditions);
+            if (conditions.isEmpty()) {
+                throw new IllegalArgumentException("AnyOf needs at least one condition");
+            }
+        }
+
+        @Override
+        public Set<SensorChannel> channels() {
+            return channelsOf(conditions);
+        }
+    }
+
+    /**
+     * The channels the condition reads.
+     */
+    Set<SensorChannel> channels();
+
+    static AlarmCondition above(SensorChannel channel, float level, float hysteresis) {
+        return new Threshold(channel, true, level, hysteresis);
+    }
+
+    static AlarmCondition below(SensorChannel channel, float level, float hysteresis) {
+        return new Threshold(channel, false, level, hysteresis);
+    }
+
+    /**
+     * A {@link SensorChannel#isBinary() binary} channel reporting 1.
+     */
+    static AlarmCondition isOn(SensorChannel channel) {
+        return new Threshold(channel, true, 0.5f, 0);
+    }
+
+    static AlarmCondition allOf(AlarmCondition... conditions) {
+        return new AllOf(List.of(conditions));
+    }
+
+    static AlarmCondition anyOf(AlarmCondition... conditions) {
+        return new AnyOf(List.of(conditions));
+    }
+
+    private static Set<SensorChannel> channelsOf(List<AlarmCondition> conditions) {
+        Set<SensorChannel> channels = EnumSet.noneOf(SensorChannel.class);
+        for (AlarmCondition condition : conditions) {
+            channels.addAll(condition.channels());
+        }
+        return channels;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mertblk.sensorui.alarm;
+
+import com.mertblk.sensorui.metrics.IngestMetrics;
+import com.mertblk.sensorui.model.AlarmEvent;
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates a fixed set of {@link AlarmRule}s against every reading, on the reader thread that
+ * decoded it. The rules are compiled once here; each device gets its own {@link DeviceAlarms}
+ * holding the per-rule state, which its reader thread keeps and calls for every frame.
+ * <p>
+ * Transitions are passed to the {@link AlarmListener}s and bump {@link #getVersion()}, which the
+ * UI polls once per pulse like it does for new readings, so showing an alarm never waits behind
+ * other work queued for the FX thread.
+ */
+public final class AlarmEngine {
+
+    /**
+     * One compiled rule, with a bit per channel it reads.
+     */
+    record CompiledRule(AlarmRule rule, CompiledCondition condition, long channelMask, SensorChannel[] channels) {
+    }
+
+    private final CompiledRule[] rules;
+    private final int latchCount;
+    private final List<AlarmListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public AlarmEngine(List<AlarmRule> rules) {
+        AlarmCompiler compiler = new AlarmCompiler();
+        this.rules = new CompiledRule[rules.size()];
+        for (int i = 0; i < this.rules.length; i++) {
+            AlarmRule rule = rules.get(i);
+            SensorChannel[] channels = rule.condition().channels().toArray(new SensorChannel[0]);
+            long mask = 0;
+            for (SensorChannel channel : channels) {
+                mask |= 1L << channel.ordinal();
+            }
+            this.rules[i] = new CompiledRule(rule, compiler.compile(rule.condition()), mask, channels);
+        }
+        this.latchCount = compiler.getLatchCount();
+    }
+
+    /**
+     * Fresh state for one device, with no alarm active. Meant to be created once per device and
+     * used only by its reader thread.
+     */
+    public DeviceAlarms forDevice(String deviceId) {
+        return new DeviceAlarms(this, deviceId, rules, latchCount);
+    }
+
+    public void addListener(AlarmListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(AlarmListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Incremented after every alarm transition of any device.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public List<AlarmRule> getRules() {
+        List<AlarmRule> list = new ArrayList<>(rules.length);
+        for (CompiledRule rule : rules) {
+            list.add(rule.rule());
+        }
+        return list;
+    }
+
+    void publish(String deviceId, String sessionId, long timestampMillis, CompiledRule rule, boolean raised, SensorData data) {
+        if (raised) {
+            IngestMetrics.ALARMS_RAISED.increment();
+        }
+        AlarmEvent event = new AlarmEvent(timestampMillis, deviceId, sessionId, rule.rule().name(), raised, describe(rule, data));
+        for (AlarmListener listener : listeners) {
+            try {
+                listener.onAlarm(event);
+            } catch (RuntimeException e) {
+                System.err.println("Error in alarm listener: " + e.getMessage());
+            }
+        }
+    }
+
+    void bumpVersion() {
+        version.incrementAndGet();
+    }
+
+    private static String describe(CompiledRule rule, SensorData data) {
+        StringBuilder values = new StringBuilder();
+        for (SensorChannel channel : rule.channels()) {
+            if (!values.isEmpty()) {
+                values.append(", ");
+            }
+            float value = channel.read(data);
+            values.append(channel.getColumn()).append('=');
+            if (channel.isBinary()) {
+                values.append((int) value);
+            } else {
+                values.append(value);
+            }
+        }
+        return values.toString();
+    }
+}
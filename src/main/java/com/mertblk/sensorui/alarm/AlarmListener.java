@@ -0,0 +1,13 @@
+package com.mertblk.sensorui.alarm;
+
+import com.mertblk.sensorui.model.AlarmEvent;
+
+/**
+ * Receives alarm transitions. Called on the reader thread of the device that caused them, so
+ * implementations must hand off anything slow instead of blocking ingest.
+ */
+@FunctionalInterface
+public interface AlarmListener {
+
+    void onAlarm(AlarmEvent event);
+}
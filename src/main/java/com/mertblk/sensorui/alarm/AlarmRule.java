@@ -0,0 +1,37 @@
+package com.mertblk.sensorui.alarm;
+
+import com.mertblk.sensorui.model.SensorChannel;
+
+import java.util.List;
+
+/**
+ * A named alarm: raised once {@code condition} has held for at least {@code minDurationMillis}
+ * (immediately if zero), cleared as soon as it stops holding.
+ */
+public record AlarmRule(String name, AlarmCondition condition, long minDurationMillis) {
+
+    public AlarmRule {
+        if (name == null || name.isBlank() || condition == null || minDurationMillis < 0) {
+            throw new IllegalArgumentException("Invalid alarm rule: " + name);
+        }
+    }
+
+    public AlarmRule(String name, AlarmCondition condition) {
+        this(name, condition, 0);
+    }
+
+    /**
+     * The rules used when none are configured: the board's own alarm inputs, a sustained high
+     * temperature, and noise on both sound sensors together.
+     */
+    public static List<AlarmRule> defaults() {
+        return List.of(
+                new AlarmRule("Fire", AlarmCondition.isOn(SensorChannel.FIRE)),
+                new AlarmRule("Sound alarm", AlarmCondition.isOn(SensorChannel.SOUND_ALARM)),
+                new AlarmRule("High temperature", AlarmCondition.above(SensorChannel.TEMPERATURE, 40, 2), 5_000),
+                new AlarmRule("Low humidity", AlarmCondition.below(SensorChannel.HUMIDITY, 15, 3), 30_000),
+                new AlarmRule("Sustained noise", AlarmCondition.allOf(
+                        AlarmCondition.isOn(SensorChannel.SOUND_1),
+                        AlarmCondition.isOn(SensorChannel.SOUND_2)), 3_000));
+    }
+}
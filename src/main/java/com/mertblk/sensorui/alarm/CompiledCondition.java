@@ -0,0 +1,14 @@
+package com.mertblk.sensorui.alarm;
+
+import com.mertblk.sensorui.model.SensorData;
+
+/**
+ * An {@link AlarmCondition} turned into straight-line code over a reading's primitive fields.
+ * Thresholds keep their hysteresis state in one slot of {@code latches}, which belongs to the
+ * device being evaluated.
+ */
+@FunctionalInterface
+interface CompiledCondition {
+
+    boolean test(SensorData data, boolean[] latches);
+}
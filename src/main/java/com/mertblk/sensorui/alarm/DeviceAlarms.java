@@ -0,0 +1,92 @@
+package com.mertblk.sensorui.alarm;
+
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorData;
+
+import java.util.Arrays;
+
+/**
+ * Alarm state of one device: the hysteresis latches, since when each rule's condition has held and
+ * which rules are active. {@link #evaluate} must only be called from the device's reader thread;
+ * {@link #getActiveChannels()} can be read from any thread.
+ */
+public final class DeviceAlarms {
+
+    private static final long NOT_HOLDING = Long.MIN_VALUE;
+
+    private final AlarmEngine engine;
+    private final String deviceId;
+    private final AlarmEngine.CompiledRule[] rules;
+    private final boolean[] latches;
+    private final long[] holdingSince;
+    private final boolean[] active;
+    private final boolean[] changed;
+
+    private volatile long activeChannels = 0;
+
+    DeviceAlarms(AlarmEngine engine, String deviceId, AlarmEngine.CompiledRule[] rules, int latchCount) {
+        this.engine = engine;
+        this.deviceId = deviceId;
+        this.rules = rules;
+        this.latches = new boolean[latchCount];
+        this.holdingSince = new long[rules.length];
+        this.active = new boolean[rules.length];
+        this.changed = new boolean[rules.length];
+        Arrays.fill(holdingSince, NOT_HOLDING);
+    }
+
+    /**
+     * Runs every rule against {@code data}. Allocates nothing unless an alarm is raised or cleared.
+     *
+     * @param sessionId the session being recorded, or {@code null}; only used for the events
+     */
+    public void evaluate(long timestampMillis, SensorData data, String sessionId) {
+        boolean anyChanged = false;
+        long channels = 0;
+        for (int i = 0; i < rules.length; i++) {
+            AlarmEngine.CompiledRule rule = rules[i];
+            boolean wasActive = active[i];
+            if (rule.condition().test(data, latches)) {
+                if (holdingSince[i] == NOT_HOLDING) {
+                    holdingSince[i] = timestampMillis;
+                }
+                active[i] = timestampMillis - holdingSince[i] >= rule.rule().minDurationMillis();
+            } else {
+                holdingSince[i] = NOT_HOLDING;
+                active[i] = false;
+            }
+            changed[i] = active[i] != wasActive;
+            anyChanged |= changed[i];
+            if (active[i]) {
+                channels |= rule.channelMask();
+            }
+        }
+        if (!anyChanged) {
+            return;
+        }
+
+        // State first, so anyone who sees the new version also sees the new channels.
+        activeChannels = channels;
+        engine.bumpVersion();
+        for (int i = 0; i < rules.length; i++) {
+            if (changed[i]) {
+                engine.publish(deviceId, sessionId, timestampMillis, rules[i], active[i], data);
+            }
+        }
+    }
+
+    /**
+     * Bit {@code 1 << channel.ordinal()} is set for every channel read by an active rule.
+     */
+    public long getActiveChannels() {
+        return activeChannels;
+    }
+
+    public boolean isInAlarm(SensorChannel channel) {
+        return (activeChannels & (1L << channel.ordinal())) != 0;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+}
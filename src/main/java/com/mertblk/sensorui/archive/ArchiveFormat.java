@@ -0,0 +1,46 @@
+package com.mertblk.sensorui.archive;
+
+/**
+ * Layout of a session archive ({@code .sarc}) file, all values little-endian:
+ * <pre>
+ * "SARC" magic, int version
+ * blocks of up to BLOCK_ROWS rows, oldest first:
+ *   u16 row count, flags byte, one bit width per packed column
+ *   id, timestamp, elapsed microseconds, temperature, humidity:
+ *       zigzag varint of the first value, then zigzag varint deltas
+ *       (temperature in 1/100 °C, or raw float bits when FLAG_RAW_TEMPERATURE is set)
+ *   device index, light, fire, s1, s2, sa:
+ *       zigzag values bit-packed at the block's width for that column
+ * metadata: session id, device id dictionary, then per block (long offset, long first timestamp)
+ * trailer: long metadata offset, int row count, int block count, "SARC" magic, int version
+ * </pre>
+ */
+final class ArchiveFormat {
+
+    static final int MAGIC = 0x43524153; // "SARC" read as little-endian int
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 256;
+    static final int HEADER_LENGTH = 8;
+    static final int TRAILER_LENGTH = 24;
+
+    static final int FLAG_RAW_TEMPERATURE = 1;
+
+    static final int PACKED_DEVICE = 0;
+    static final int PACKED_LIGHT = 1;
+    static final int PACKED_FIRE = 2;
+    static final int PACKED_S1 = 3;
+    static final int PACKED_S2 = 4;
+    static final int PACKED_SA = 5;
+    static final int PACKED_COLUMNS = 6;
+
+    private ArchiveFormat() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
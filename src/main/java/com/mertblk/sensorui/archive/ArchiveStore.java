@@ -0,0 +1,192 @@
+package com.mertblk.sensorui.archive;
+
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.ReadingSource;
+import com.mertblk.sensorui.db.ReadingVisitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Archives closed sessions into {@code .sarc} files in one directory and hands out whichever
+ * copy of a session is cheaper to read: the archive if there is one, the database otherwise.
+ * <p>
+ * Opened archives are kept for reuse. Before an archive file is replaced or deleted the store
+ * closes its instance; readers that still hold a reference keep reading the old file until they
+ * close theirs.
+ */
+public class ArchiveStore {
+
+    public static final Path DEFAULT_DIRECTORY = Path.of("archive");
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private final DatabaseManager database;
+    private final Path directory;
+    // Each holds a reference owned by the store. Guarded by this.
+    private final Map<String, SessionArchive> openArchives = new HashMap<>();
+
+    public ArchiveStore(DatabaseManager database, Path directory) {
+        this.database = database;
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the archive of {@code sessionId}, or returns {@code null} if it has none. The caller
+     * gets a reference of its own and must close it when done.
+     */
+    public synchronized SessionArchive open(String sessionId) throws IOException {
+        SessionArchive archive = openArchives.get(sessionId);
+        if (archive == null) {
+            String path = database.getArchivePath(sessionId);
+            if (path == null) {
+                return null;
+            }
+            archive = SessionArchive.open(Path.of(path));
+            openArchives.put(sessionId, archive);
+        }
+        archive.retain();
+        return archive;
+    }
+
+    /**
+     * Drops the store's reference to the archive of {@code sessionId}, if it has one open.
+     */
+    private synchronized void closeArchive(String sessionId) throws IOException {
+        SessionArchive archive = openArchives.remove(sessionId);
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    /**
+     * Every session, whether its rows are in the database or only in an archive, newest first.
+     */
+    public List<String> getSessionIds() {
+        return database.getDistinctSessionIds();
+    }
+
+    /**
+     * All rows of one session, from its archive if it has one.
+     */
+    public ReadingSource sessionReadings(String sessionId) throws IOException {
+        try (SessionArchive archive = open(sessionId)) {
+            if (archive != null) {
+                return archivedReadings(sessionId, archive.count());
+            }
+        }
+        return database.readings("WHERE session_id = ? ", List.of(sessionId));
+    }
+
+    /**
+     * Every row: what is still in the database followed by the sessions that only exist as archives.
+     */
+    public ReadingSource allReadings() throws IOException {
+        List<ReadingSource> sources = new ArrayList<>();
+        sources.add(database.readings("WHERE 1=1 ", List.of()));
+        for (String sessionId : database.getArchiveOnlySessions().keySet()) {
+            sources.add(sessionReadings(sessionId));
+        }
+        return ReadingSource.concat(sources);
+    }
+
+    /**
+     * Rows of an archived session. Every pass opens the archive for itself and closes it again,
+     * so nothing is held open between passes.
+     */
+    private ReadingSource archivedReadings(String sessionId, int count) {
+        return new ReadingSource() {
+            @Override
+            public int count() {
+                return count;
+            }
+
+            @Override
+            public void forEach(ReadingVisitor visitor) throws IOException {
+                try (SessionArchive archive = open(sessionId)) {
+                    if (archive == null) {
+                        throw new IOException("The archive of " + sessionId + " no longer exists");
+                    }
+                    archive.forEach(visitor);
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes {@code sessionId} to an archive file and records it in the sessions table, removing
+     * the raw rows if {@code deleteReadings} is set. The file is written under a temporary name
+     * and moved into place, so a failed run never leaves a truncated archive behind.
+     *
+     * @return the number of rows archived
+     */
+    public int archive(String sessionId, boolean deleteReadings, IntConsumer progress) throws IOException, SQLException {
+        if (database.getArchiveOnlySessions().containsKey(sessionId)) {
+            throw new IOException(sessionId + " is already archived and has no rows left in the database");
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve(fileNameFor(sessionId));
+        Path tempFile = directory.resolve(file.getFileName() + ".tmp");
+
+        int rows;
+        try (SessionArchiveWriter writer = new SessionArchiveWriter(tempFile, sessionId)) {
+            database.forEachSensorReading("WHERE session_id = ? ", List.of(sessionId), true, reading -> {
+                writer.write(reading);
+                if (writer.getRowCount() % PROGRESS_INTERVAL == 0) {
+                    progress.accept(writer.getRowCount());
+                }
+                return true;
+            });
+            writer.finish();
+            rows = writer.getRowCount();
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        // Under the lock, so the old file can't be opened again between closing and replacing it.
+        synchronized (this) {
+            closeArchive(sessionId);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (!database.markSessionArchived(sessionId, file.toAbsolutePath().toString(), deleteReadings)) {
+            throw new IOException("Archive written to " + file + " but the session could not be marked as archived");
+        }
+        return rows;
+    }
+
+    /**
+     * Deletes the archive files of sessions that ended before {@code cutoffMillis}, and the sessions
+     * with them. A file that can't be deleted keeps its session, so the next call tries again.
+     *
+     * @return the number of sessions deleted
+     */
+    public int deleteArchivesBefore(long cutoffMillis) throws SQLException {
+        int deleted = 0;
+        for (Map.Entry<String, String> entry : database.getArchivedSessionsEndedBefore(cutoffMillis).entrySet()) {
+            synchronized (this) {
+                try {
+                    closeArchive(entry.getKey());
+                    Files.deleteIfExists(Path.of(entry.getValue()));
+                } catch (IOException e) {
+                    System.err.println("Could not delete archive " + entry.getValue() + ": " + e.getMessage());
+                    continue;
+                }
+                database.deleteSession(entry.getKey());
+            }
+            deleted++;
+        }
+        return deleted;
+    }
+
+    private static String fileNameFor(String sessionId) {
+        return sessionId.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(sessionId.hashCode()) + ".sarc";
+    }
+}
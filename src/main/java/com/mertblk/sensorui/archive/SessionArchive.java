@@ -0,0 +1,322 @@
+package com.mertblk.sensorui.archive;
+
+import com.mertblk.sensorui.db.ReadingSource;
+import com.mertblk.sensorui.db.ReadingVisitor;
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.mertblk.sensorui.archive.ArchiveFormat.*;
+
+/**
+ * Read-only view of a session archive written by {@link SessionArchiveWriter}. Opening it only
+ * reads the trailer and block index; rows are decoded a block at a time when asked for, each block
+ * fetched with one positional read. Indices run oldest first.
+ * <p>
+ * The file stays open until every holder has {@link #close closed} it: {@link #open} hands out one
+ * reference and {@link #retain} adds another. Once the last one is closed, reads fail and the file
+ * can be replaced or deleted on any platform.
+ */
+public class SessionArchive implements ReadingSource, Closeable {
+
+    private final FileChannel channel;
+    private final String sessionId;
+    private final String[] devices;
+    private final int rowCount;
+    private final long[] blockOffsets;
+    private final long[] blockFirstTimestamps;
+    private final long metadataOffset;
+
+    // The block last decoded by get(); the table asks for neighbouring rows in runs.
+    private DecodedBlock cachedBlock;
+    private int references = 1;
+
+    private SessionArchive(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long length = channel.size();
+        if (length < HEADER_LENGTH + TRAILER_LENGTH || length > Integer.MAX_VALUE
+                || read(0, 4).getInt(0) != MAGIC) {
+            throw new IOException("Not a session archive or unsupported version");
+        }
+        ByteBuffer trailer = read(length - TRAILER_LENGTH, TRAILER_LENGTH);
+        if (trailer.getInt(16) != MAGIC || trailer.getInt(20) != VERSION) {
+            throw new IOException("Not a session archive or unsupported version");
+        }
+        this.metadataOffset = trailer.getLong(0);
+        this.rowCount = trailer.getInt(8);
+        int blockCount = trailer.getInt(12);
+        if (metadataOffset < HEADER_LENGTH || metadataOffset > length - TRAILER_LENGTH) {
+            throw new IOException("Corrupt session archive trailer");
+        }
+
+        ByteBuffer metadata = read(metadataOffset, (int) (length - TRAILER_LENGTH - metadataOffset));
+        int[] position = {0};
+        this.sessionId = readString(metadata, position);
+        this.devices = new String[metadata.getInt(position[0])];
+        position[0] += 4;
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = readString(metadata, position);
+        }
+        this.blockOffsets = new long[blockCount];
+        this.blockFirstTimestamps = new long[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            blockOffsets[i] = metadata.getLong(position[0]);
+            blockFirstTimestamps[i] = metadata.getLong(position[0] + 8);
+            position[0] += 16;
+        }
+    }
+
+    public static SessionArchive open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new SessionArchive(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a reference for another holder, who must {@link #close} it.
+     *
+     * @return {@code false} if the archive was already closed
+     */
+    public synchronized boolean retain() {
+        if (references == 0) {
+            return false;
+        }
+        references++;
+        return true;
+    }
+
+    /**
+     * Drops one reference; the file is closed with the last.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (references > 0 && --references == 0) {
+            cachedBlock = null;
+            channel.close();
+        }
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    @Override
+    public int count() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the row at {@code index}, counted from the oldest.
+     */
+    public synchronized SensorReading get(int index) {
+        if (index < 0 || index >= rowCount) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int block = index / BLOCK_ROWS;
+        if (cachedBlock == null || cachedBlock.block != block) {
+            try {
+                cachedBlock = decode(block, cachedBlock);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return cachedBlock.reading(index % BLOCK_ROWS);
+    }
+
+    /**
+     * Index of the first row with a timestamp at or after {@code timestampMillis}, or
+     * {@link #size()} if there is none.
+     */
+    public int indexAtOrAfter(long timestampMillis) throws IOException {
+        int lo = 0;
+        int hi = blockFirstTimestamps.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (blockFirstTimestamps[mid] < timestampMillis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        // Matching rows start in the block before the first one that begins at or after the time.
+        int block = Math.max(0, lo - 1);
+        if (block >= blockOffsets.length) {
+            return rowCount;
+        }
+        DecodedBlock decoded = decode(block, null);
+        for (int i = 0; i < decoded.rows; i++) {
+            if (decoded.timestamps[i] >= timestampMillis) {
+                return block * BLOCK_ROWS + i;
+            }
+        }
+        return Math.min(rowCount, (block + 1) * BLOCK_ROWS);
+    }
+
+    @Override
+    public void forEach(ReadingVisitor visitor) throws IOException {
+        DecodedBlock decoded = null;
+        for (int block = blockOffsets.length - 1; block >= 0; block--) {
+            decoded = decode(block, decoded);
+            for (int i = decoded.rows - 1; i >= 0; i--) {
+                if (!visitor.visit(decoded.reading(i))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private DecodedBlock decode(int block, DecodedBlock reuse) throws IOException {
+        DecodedBlock decoded = reuse != null ? reuse : new DecodedBlock();
+        long end = block + 1 < blockOffsets.length ? blockOffsets[block + 1] : metadataOffset;
+        ByteBuffer data = decoded.read(blockOffsets[block], (int) (end - blockOffsets[block]));
+        int n = (data.get(0) & 0xFF) | (data.get(1) & 0xFF) << 8;
+        int flags = data.get(2);
+        int[] widths = new int[PACKED_COLUMNS];
+        for (int column = 0; column < PACKED_COLUMNS; column++) {
+            widths[column] = data.get(3 + column);
+        }
+        int[] position = {3 + PACKED_COLUMNS};
+
+        long value = 0;
+        for (int i = 0; i < n; i++) {
+            value += unzigzag(readVarint(data, position));
+            decoded.ids[i] = (int) value;
+        }
+        value = 0;
+        for (int i = 0; i < n; i++) {
+            value += unzigzag(readVarint(data, position));
+            decoded.timestamps[i] = value;
+        }
+        value = 0;
+        for (int i = 0; i < n; i++) {
+            value += unzigzag(readVarint(data, position));
+            decoded.elapsedSeconds[i] = value / 1_000_000.0;
+        }
+        if ((flags & FLAG_RAW_TEMPERATURE) == 0) {
+            value = 0;
+            for (int i = 0; i < n; i++) {
+                value += unzigzag(readVarint(data, position));
+                decoded.temperatures[i] = value / 100f;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                decoded.temperatures[i] = Float.intBitsToFloat(data.getInt(position[0]));
+                position[0] += 4;
+            }
+        }
+        value = 0;
+        for (int i = 0; i < n; i++) {
+            value += unzigzag(readVarint(data, position));
+            decoded.humidities[i] = (int) value;
+        }
+
+        for (int column = 0; column < PACKED_COLUMNS; column++) {
+            int width = widths[column];
+            int[] target = decoded.packed[column];
+            if (width == 0) {
+                Arrays.fill(target, 0, n, 0);
+                continue;
+            }
+            long mask = (1L << width) - 1;
+            long bits = 0;
+            int bitCount = 0;
+            for (int i = 0; i < n; i++) {
+                while (bitCount < width) {
+                    bits |= (long) (data.get(position[0]++) & 0xFF) << bitCount;
+                    bitCount += 8;
+                }
+                target[i] = (int) unzigzag(bits & mask);
+                bits >>>= width;
+                bitCount -= width;
+            }
+        }
+
+        decoded.block = block;
+        decoded.rows = n;
+        return decoded;
+    }
+
+    private static long readVarint(ByteBuffer data, int[] position) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data.get(position[0]++);
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    private static String readString(ByteBuffer data, int[] position) {
+        int length = data.getInt(position[0]);
+        position[0] += 4;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.get(position[0], bytes);
+        position[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads {@code length} bytes at {@code offset} into a new buffer.
+     */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        return readFully(ByteBuffer.allocate(length), offset);
+    }
+
+    private ByteBuffer readFully(ByteBuffer target, long offset) throws IOException {
+        target.order(ByteOrder.LITTLE_ENDIAN);
+        while (target.hasRemaining()) {
+            if (channel.read(target, offset + target.position()) < 0) {
+                throw new EOFException("Session archive is truncated");
+            }
+        }
+        return target.flip();
+    }
+
+    private final class DecodedBlock {
+        int block = -1;
+        int rows;
+        final int[] ids = new int[BLOCK_ROWS];
+        final long[] timestamps = new long[BLOCK_ROWS];
+        final double[] elapsedSeconds = new double[BLOCK_ROWS];
+        final float[] temperatures = new float[BLOCK_ROWS];
+        final int[] humidities = new int[BLOCK_ROWS];
+        final int[][] packed = new int[PACKED_COLUMNS][BLOCK_ROWS];
+        private ByteBuffer bytes = ByteBuffer.allocate(0);
+
+        ByteBuffer read(long offset, int length) throws IOException {
+            if (bytes.capacity() < length) {
+                bytes = ByteBuffer.allocate(length);
+            }
+            return readFully(bytes.clear().limit(length), offset);
+        }
+
+        SensorReading reading(int i) {
+            return new SensorReading(ids[i], sessionId, devices[packed[PACKED_DEVICE][i]], timestamps[i],
+                    elapsedSeconds[i], temperatures[i], humidities[i], packed[PACKED_LIGHT][i],
+                    packed[PACKED_FIRE][i], packed[PACKED_S1][i], packed[PACKED_S2][i], packed[PACKED_SA][i]);
+        }
+    }
+}
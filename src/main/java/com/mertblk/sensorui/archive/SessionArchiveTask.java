@@ -0,0 +1,30 @@
+package com.mertblk.sensorui.archive;
+
+import javafx.concurrent.Task;
+
+/**
+ * Background archiving of one session through an {@link ArchiveStore}. The task's value is the
+ * number of rows archived. The rows are counted for the progress bar here too, off the FX thread.
+ */
+public class SessionArchiveTask extends Task<Integer> {
+
+    private final ArchiveStore store;
+    private final String sessionId;
+    private final boolean deleteReadings;
+
+    public SessionArchiveTask(ArchiveStore store, String sessionId, boolean deleteReadings) {
+        this.store = store;
+        this.sessionId = sessionId;
+        this.deleteReadings = deleteReadings;
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        updateMessage("Counting rows...");
+        int expectedRows = store.sessionReadings(sessionId).count();
+        updateMessage("Archiving " + sessionId + "...");
+        int rows = store.archive(sessionId, deleteReadings, written -> updateProgress(written, expectedRows));
+        updateProgress(rows, rows);
+        return rows;
+    }
+}
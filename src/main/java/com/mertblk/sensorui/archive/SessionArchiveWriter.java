@@ -0,0 +1,251 @@
+package com.mertblk.sensorui.archive;
+
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mertblk.sensorui.archive.ArchiveFormat.*;
+
+/**
+ * Writes one session's rows, oldest first, into the columnar {@link ArchiveFormat}. Rows are
+ * buffered a block at a time in primitive arrays and encoded when the block is full.
+ */
+public class SessionArchiveWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final String sessionId;
+    private final Map<String, Integer> deviceIndex = new HashMap<>();
+    private final List<String> devices = new ArrayList<>();
+    private final List<long[]> blockIndex = new ArrayList<>();
+
+    private final int[] ids = new int[BLOCK_ROWS];
+    private final long[] timestamps = new long[BLOCK_ROWS];
+    private final long[] elapsedMicros = new long[BLOCK_ROWS];
+    private final float[] temperatures = new float[BLOCK_ROWS];
+    private final int[] humidities = new int[BLOCK_ROWS];
+    private final int[][] packed = new int[PACKED_COLUMNS][BLOCK_ROWS];
+    private int blockRows = 0;
+
+    private byte[] out = new byte[BLOCK_ROWS * 64];
+    private int outLength = 0;
+    private long position;
+    private int rowCount = 0;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    public SessionArchiveWriter(Path file, String sessionId) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.sessionId = sessionId;
+        putInt(MAGIC);
+        putInt(VERSION);
+        flushOut();
+    }
+
+    /**
+     * Appends a row. Rows must arrive in ascending timestamp order.
+     */
+    public void write(SensorReading reading) throws IOException {
+        if (reading.timestampMillis() < lastTimestamp) {
+            throw new IllegalArgumentException("Rows must be written oldest first");
+        }
+        lastTimestamp = reading.timestampMillis();
+
+        int row = blockRows++;
+        ids[row] = reading.id();
+        timestamps[row] = reading.timestampMillis();
+        elapsedMicros[row] = Math.round(reading.elapsedSeconds() * 1_000_000);
+        temperatures[row] = reading.temperature();
+        humidities[row] = reading.humidity();
+        packed[PACKED_DEVICE][row] = deviceIndex.computeIfAbsent(reading.deviceId(), id -> {
+            devices.add(id);
+            return devices.size() - 1;
+        });
+        packed[PACKED_LIGHT][row] = reading.light();
+        packed[PACKED_FIRE][row] = reading.fire();
+        packed[PACKED_S1][row] = reading.s1();
+        packed[PACKED_S2][row] = reading.s2();
+        packed[PACKED_SA][row] = reading.sa();
+        rowCount++;
+
+        if (blockRows == BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Writes the last partial block, the metadata and the trailer. The file is only valid after this.
+     */
+    public void finish() throws IOException {
+        if (blockRows > 0) {
+            writeBlock();
+        }
+        long metadataOffset = position;
+        putString(sessionId);
+        putInt(devices.size());
+        for (String device : devices) {
+            putString(device);
+        }
+        for (long[] entry : blockIndex) {
+            putLong(entry[0]);
+            putLong(entry[1]);
+        }
+        putLong(metadataOffset);
+        putInt(rowCount);
+        putInt(blockIndex.size());
+        putInt(MAGIC);
+        putInt(VERSION);
+        flushOut();
+        channel.force(true);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    private void writeBlock() throws IOException {
+        int n = blockRows;
+        blockIndex.add(new long[]{position, timestamps[0]});
+
+        boolean centiTemperatures = true;
+        for (int i = 0; i < n && centiTemperatures; i++) {
+            float centi = Math.round(temperatures[i] * 100);
+            centiTemperatures = Math.abs(centi) < (1 << 24) && centi / 100f == temperatures[i];
+        }
+
+        int[] widths = new int[PACKED_COLUMNS];
+        for (int column = 0; column < PACKED_COLUMNS; column++) {
+            long max = 0;
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, zigzag(packed[column][i]));
+            }
+            widths[column] = 64 - Long.numberOfLeadingZeros(max);
+        }
+
+        put((byte) n);
+        put((byte) (n >>> 8));
+        put((byte) (centiTemperatures ? 0 : FLAG_RAW_TEMPERATURE));
+        for (int width : widths) {
+            put((byte) width);
+        }
+
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            putVarint(zigzag(ids[i] - previous));
+            previous = ids[i];
+        }
+        previous = 0;
+        for (int i = 0; i < n; i++) {
+            putVarint(zigzag(timestamps[i] - previous));
+            previous = timestamps[i];
+        }
+        previous = 0;
+        for (int i = 0; i < n; i++) {
+            putVarint(zigzag(elapsedMicros[i] - previous));
+            previous = elapsedMicros[i];
+        }
+        if (centiTemperatures) {
+            previous = 0;
+            for (int i = 0; i < n; i++) {
+                long centi = Math.round(temperatures[i] * 100);
+                putVarint(zigzag(centi - previous));
+                previous = centi;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                putInt(Float.floatToRawIntBits(temperatures[i]));
+            }
+        }
+        previous = 0;
+        for (int i = 0; i < n; i++) {
+            putVarint(zigzag(humidities[i] - previous));
+            previous = humidities[i];
+        }
+
+        for (int column = 0; column < PACKED_COLUMNS; column++) {
+            int width = widths[column];
+            if (width == 0) {
+                continue;
+            }
+            long bits = 0;
+            int bitCount = 0;
+            for (int i = 0; i < n; i++) {
+                bits |= zigzag(packed[column][i]) << bitCount;
+                bitCount += width;
+                while (bitCount >= 8) {
+                    put((byte) bits);
+                    bits >>>= 8;
+                    bitCount -= 8;
+                }
+            }
+            if (bitCount > 0) {
+                put((byte) bits);
+            }
+        }
+
+        blockRows = 0;
+        flushOut();
+    }
+
+    private void put(byte b) {
+        if (outLength == out.length) {
+            out = Arrays.copyOf(out, out.length * 2);
+        }
+        out[outLength++] = b;
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        put((byte) value);
+    }
+
+    private void putInt(int value) {
+        for (int i = 0; i < 4; i++) {
+            put((byte) (value >>> (8 * i)));
+        }
+    }
+
+    private void putLong(long value) {
+        for (int i = 0; i < 8; i++) {
+            put((byte) (value >>> (8 * i)));
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        for (byte b : bytes) {
+            put(b);
+        }
+    }
+
+    private void flushOut() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(out, 0, outLength).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position += outLength;
+        outLength = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,79 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.AlarmEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence of alarm events into {@code alarm_events}, so the reader thread that
+ * raised an alarm never waits for the database. Events arriving while a commit is in progress are
+ * saved together in the next one.
+ */
+public class AlarmEventWriter {
+
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 2000;
+
+    private final BlockingQueue<AlarmEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final DatabaseManager database;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public AlarmEventWriter(DatabaseManager database) {
+        this.database = database;
+        this.writerThread = new Thread(this::drainLoop, "alarm-event-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues an event. Never blocks; if the queue is full (an alarm flapping faster than the
+     * database keeps up) the event is dropped with a message.
+     */
+    public void enqueue(AlarmEvent event) {
+        if (!queue.offer(event)) {
+            System.err.println("Alarm event queue full, not saving: " + event.rule() + " on " + event.deviceId());
+        }
+    }
+
+    /**
+     * Saves what is still queued and stops the writer thread.
+     */
+    public void shutdown() {
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<AlarmEvent> batch = new ArrayList<>();
+        while (running) {
+            try {
+                AlarmEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                database.saveAlarmEvents(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            }
+        }
+        queue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            database.saveAlarmEvents(batch);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mertblk.sensorui.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A long-lived SQLite connection with a small LRU cache of prepared statements.
+ * Instances are not thread-safe; callers must confine each one to a single thread at a time.
+ */
+class CachedConnection implements AutoCloseable {
+
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > STATEMENT_CACHE_SIZE) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    CachedConnection(String url, String... pragmas) throws SQLException {
+        this.connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            for (String pragma : pragmas) {
+                stmt.execute(pragma);
+            }
+        }
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Returns a cached prepared statement for the given SQL, preparing it on first use.
+     * Parameters left over from a previous use are cleared.
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement pstmt = statements.get(sql);
+        if (pstmt == null || pstmt.isClosed()) {
+            pstmt = connection.prepareStatement(sql);
+            statements.put(sql, pstmt);
+        } else {
+            pstmt.clearParameters();
+        }
+        return pstmt;
+    }
+
+    /**
+     * Drops the cached statement for {@code sql}. Used after a failed execution, since an interrupted
+     * statement is finalized by the driver but does not report itself as closed.
+     */
+    void discard(String sql) {
+        PreparedStatement pstmt = statements.remove(sql);
+        if (pstmt != null) {
+            closeQuietly(pstmt);
+        }
+    }
+
+    /**
+     * Closes every cached statement. SQLite refuses to VACUUM while a connection still has a
+     * statement that was stepped but not finalized.
+     */
+    void clearStatements() {
+        for (PreparedStatement pstmt : statements.values()) {
+            closeQuietly(pstmt);
+        }
+        statements.clear();
+    }
+
+    @Override
+    public void close() {
+        clearStatements();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing database connection: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -1,121 +1,943 @@
 package com.mertblk.sensorui.db;
 
+import com.mertblk.sensorui.metrics.IngestMetrics;
+import com.mertblk.sensorui.model.AlarmEvent;
 import com.mertblk.sensorui.model.SensorData;
 import com.mertblk.sensorui.model.SensorReading;
 
+import java.io.IOException;
 import java.sql.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-public class DatabaseManager {
-
-    private static final String DB_URL = "jdbc:sqlite:sensor_data.db";
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-    public static void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement()) {
-            String sql = "CREATE TABLE IF NOT EXISTS sensor_readings (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                    "session_id TEXT NOT NULL," +
-                    "timestamp TEXT NOT NULL," +
-                    "elapsed_seconds REAL NOT NULL," +
-                    "temperature REAL," +
-                    "humidity INTEGER," +
-                    "light INTEGER," +
-                    "fire INTEGER," +
-                    "s1 INTEGER," +
-                    "s2 INTEGER," +
-                    "sa INTEGER" +
-                    ")";
-            stmt.execute(sql);
+/**
+ * Owns the application's SQLite connections: one persistent writer connection and a small
+ * pool of read-only connections, all running in WAL mode so readers never block the writer.
+ * Every connection caches its prepared statements.
+ */
+public class DatabaseManager implements AutoCloseable {
+
+    private static final String DEFAULT_DB_URL = "jdbc:sqlite:sensor_data.db";
+    private static final int READ_POOL_SIZE = 4;
+    private static final long READ_TIMEOUT_SECONDS = 10;
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String[] COMMON_PRAGMAS = {
+            "PRAGMA busy_timeout = 5000",
+            "PRAGMA synchronous = NORMAL",
+            "PRAGMA cache_size = -16384",
+            "PRAGMA mmap_size = 268435456",
+            "PRAGMA temp_store = MEMORY"
+    };
+
+    private static final String CREATE_READINGS_SQL = "CREATE TABLE IF NOT EXISTS sensor_readings (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "session_id TEXT NOT NULL," +
+            "timestamp INTEGER NOT NULL," +
+            "elapsed_seconds REAL NOT NULL," +
+            "temperature REAL," +
+            "humidity INTEGER," +
+            "light INTEGER," +
+            "fire INTEGER," +
+            "s1 INTEGER," +
+            "s2 INTEGER," +
+            "sa INTEGER," +
+            "device_id TEXT" +
+            ")";
+
+    private static final String UPSERT_SESSION_SQL = "INSERT INTO sessions(session_id, start_time, end_time, row_count) VALUES(?,?,?,?) " +
+            "ON CONFLICT(session_id) DO UPDATE SET " +
+            "start_time = MIN(start_time, excluded.start_time), " +
+            "end_time = MAX(end_time, excluded.end_time), " +
+            "row_count = row_count + excluded.row_count";
+
+    private static final String READING_COLUMNS = "id, session_id, device_id, timestamp, elapsed_seconds, temperature, humidity, light, fire, s1, s2, sa";
+
+    private static final String INSERT_SQL = "INSERT INTO sensor_readings(session_id, device_id, timestamp, elapsed_seconds, temperature, humidity, light, fire, s1, s2, sa) " +
+            "VALUES(?,?,?,?,?,?,?,?,?,?,?)";
+
+    private static final Map<RollupResolution, String> ROLLUP_UPSERT_SQL = new EnumMap<>(RollupResolution.class);
+
+    static {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            ROLLUP_UPSERT_SQL.put(resolution, Rollups.upsertSql(resolution));
+        }
+    }
+
+    private final String url;
+    private final BlockingQueue<CachedConnection> readers = new ArrayBlockingQueue<>(READ_POOL_SIZE);
+    private CachedConnection writer;
+    // Newest committed timestamp per device, where the next batch's on-duration gaps start. Guarded by this.
+    private Map<String, Long> lastRollupTimes = new HashMap<>();
+
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+        T apply(CachedConnection conn) throws SQLException;
+    }
+
+    public DatabaseManager() {
+        this(DEFAULT_DB_URL);
+    }
+
+    public DatabaseManager(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Opens the connections and creates or migrates the schema.
+     *
+     * @throws IllegalStateException if the database can't be opened or migrated
+     */
+    public void initializeDatabase() {
+        try {
+            writer = new CachedConnection(url, withPragmas("PRAGMA journal_mode = WAL"));
+            Connection conn = writer.connection();
+            try (Statement stmt = conn.createStatement()) {
+                enableIncrementalVacuumIfNew(stmt);
+            }
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                if (hasTextTimestamps(stmt)) {
+                    migrateTextTimestamps(stmt);
+                }
+                stmt.execute(CREATE_READINGS_SQL);
+                if (!hasColumn(stmt, "sensor_readings", "device_id")) {
+                    stmt.execute("ALTER TABLE sensor_readings ADD COLUMN device_id TEXT");
+                }
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_readings_session_time ON sensor_readings(session_id, timestamp)");
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_readings_time ON sensor_readings(timestamp)");
+                stmt.execute("CREATE TABLE IF NOT EXISTS sessions (" +
+                        "session_id TEXT PRIMARY KEY," +
+                        "start_time INTEGER NOT NULL," +
+                        "end_time INTEGER NOT NULL," +
+                        "row_count INTEGER NOT NULL" +
+                        ")");
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_sessions_start ON sessions(start_time)");
+                if (!hasColumn(stmt, "sessions", "archive_path")) {
+                    stmt.execute("ALTER TABLE sessions ADD COLUMN archive_path TEXT");
+                    stmt.execute("ALTER TABLE sessions ADD COLUMN archive_only INTEGER NOT NULL DEFAULT 0");
+                }
+                backfillSessions(stmt);
+                for (RollupResolution resolution : RollupResolution.values()) {
+                    stmt.execute(Rollups.createTableSql(resolution));
+                }
+                backfillRollups(stmt);
+                stmt.execute("CREATE TABLE IF NOT EXISTS alarm_events (" +
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                        "timestamp INTEGER NOT NULL," +
+                        "device_id TEXT NOT NULL," +
+                        "session_id TEXT," +
+                        "rule TEXT NOT NULL," +
+                        "raised INTEGER NOT NULL," +
+                        "reading_values TEXT" +
+                        ")");
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_alarm_events_time ON alarm_events(timestamp)");
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            for (int i = 0; i < READ_POOL_SIZE; i++) {
+                readers.add(new CachedConnection(url, withPragmas("PRAGMA query_only = ON")));
+            }
         } catch (SQLException e) {
-            System.err.println("Database initialization error: " + e.getMessage());
-        }
-    }
-
-    public static void saveSensorData(String sessionId, double elapsedSeconds, SensorData data) {
-        String sql = "INSERT INTO sensor_readings(session_id, timestamp, elapsed_seconds, temperature, humidity, light, fire, s1, s2, sa) " +
-                "VALUES(?,?,?,?,?,?,?,?,?,?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, sessionId);
-            pstmt.setString(2, LocalDateTime.now().format(formatter));
-            pstmt.setDouble(3, elapsedSeconds);
-            pstmt.setFloat(4, data.getTemperature());
-            pstmt.setInt(5, data.getHumidity());
-            pstmt.setInt(6, data.getLight());
-            pstmt.setInt(7, data.getFire());
-            pstmt.setInt(8, data.getS1());
-            pstmt.setInt(9, data.getS2());
-            pstmt.setInt(10, data.getSa());
-            pstmt.executeUpdate();
+            // Half-open connections would leave callers waiting for readers that never come.
+            close();
+            throw new IllegalStateException("Database initialization failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lets {@link #incrementalVacuum} hand freed pages back to the file system. The pragma only takes
+     * effect on its own in a database without tables; an existing one keeps its mode until it is
+     * rebuilt with {@link #rebuildForIncrementalVacuum}, which is left to the retention manager.
+     */
+    private static void enableIncrementalVacuumIfNew(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT NOT EXISTS(SELECT 1 FROM sqlite_master WHERE type = 'table')")) {
+            if (rs.next() && rs.getBoolean(1)) {
+                stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            }
+        }
+    }
+
+    private static boolean hasTextTimestamps(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(sensor_readings)")) {
+            while (rs.next()) {
+                if ("timestamp".equals(rs.getString("name"))) {
+                    return "TEXT".equalsIgnoreCase(rs.getString("type"));
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasColumn(Statement stmt, String table, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equals(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rewrites a database created with "yyyy-MM-dd HH:mm:ss" local-time TEXT timestamps into
+     * epoch-millisecond INTEGER timestamps, keeping row ids.
+     */
+    private static void migrateTextTimestamps(Statement stmt) throws SQLException {
+        System.out.println("Migrating sensor_readings timestamps to epoch milliseconds...");
+        stmt.execute("ALTER TABLE sensor_readings RENAME TO sensor_readings_legacy");
+        stmt.execute(CREATE_READINGS_SQL);
+        stmt.execute("INSERT INTO sensor_readings(id, session_id, timestamp, elapsed_seconds, temperature, humidity, light, fire, s1, s2, sa) " +
+                "SELECT id, session_id, CAST(strftime('%s', timestamp, 'utc') AS INTEGER) * 1000, elapsed_seconds, temperature, humidity, light, fire, s1, s2, sa " +
+                "FROM sensor_readings_legacy");
+        stmt.execute("DROP TABLE sensor_readings_legacy");
+    }
+
+    private static void backfillSessions(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT EXISTS(SELECT 1 FROM sessions)")) {
+            if (rs.next() && rs.getBoolean(1)) {
+                return;
+            }
+        }
+        stmt.execute("INSERT INTO sessions(session_id, start_time, end_time, row_count) " +
+                "SELECT session_id, MIN(timestamp), MAX(timestamp), COUNT(*) FROM sensor_readings GROUP BY session_id");
+    }
+
+    private static void backfillRollups(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT NOT EXISTS(SELECT 1 FROM " + RollupResolution.SECOND.getTable() + ") " +
+                "AND EXISTS(SELECT 1 FROM sensor_readings)")) {
+            if (!rs.next() || !rs.getBoolean(1)) {
+                return;
+            }
+        }
+        System.out.println("Building rollup tables from existing readings...");
+        for (RollupResolution resolution : RollupResolution.values()) {
+            Rollups.backfill(stmt, resolution);
+        }
+    }
+
+    private static String[] withPragmas(String... extra) {
+        String[] pragmas = new String[COMMON_PRAGMAS.length + extra.length];
+        System.arraycopy(extra, 0, pragmas, 0, extra.length);
+        System.arraycopy(COMMON_PRAGMAS, 0, pragmas, extra.length, COMMON_PRAGMAS.length);
+        return pragmas;
+    }
+
+    private <T> T withReader(SqlFunction<T> query) throws SQLException {
+        return withReader(query, true);
+    }
+
+    /**
+     * Runs {@code query} on a pooled read connection. Its execution time is recorded in
+     * {@link IngestMetrics#QUERY} unless {@code timed} is false, as for cursors whose duration
+     * depends on the caller's visitor.
+     */
+    private <T> T withReader(SqlFunction<T> query, boolean timed) throws SQLException {
+        CachedConnection conn;
+        try {
+            conn = readers.poll(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+        if (conn == null) {
+            throw new SQLException("No read connection available");
+        }
+        long start = System.nanoTime();
+        try {
+            return query.apply(conn);
+        } finally {
+            readers.add(conn);
+            if (timed) {
+                IngestMetrics.QUERY.recordSince(start);
+            }
+        }
+    }
+
+    private CachedConnection requireWriter() throws SQLException {
+        if (writer == null) {
+            throw new SQLException("Database is not initialized");
+        }
+        return writer;
+    }
+
+    public void saveSensorData(String sessionId, String deviceId, double elapsedSeconds, SensorData data) {
+        saveSensorDataBatch(List.of(new PendingReading(sessionId, deviceId, System.currentTimeMillis(), elapsedSeconds, data, System.nanoTime())));
+    }
+
+    public boolean saveAlarmEvents(List<AlarmEvent> events) {
+        try {
+            inWriteTransaction(conn -> {
+                PreparedStatement insert = conn.prepare("INSERT INTO alarm_events(timestamp, device_id, session_id, rule, raised, reading_values) VALUES(?,?,?,?,?,?)");
+                for (AlarmEvent event : events) {
+                    insert.setLong(1, event.timestampMillis());
+                    insert.setString(2, event.deviceId());
+                    insert.setString(3, event.sessionId());
+                    insert.setString(4, event.rule());
+                    insert.setInt(5, event.raised() ? 1 : 0);
+                    insert.setString(6, event.values());
+                    insert.addBatch();
+                }
+                return insert.executeBatch();
+            });
+            return true;
         } catch (SQLException e) {
-            System.err.println("Error saving sensor data: ".concat(e.getMessage()));
+            System.err.println("Error saving alarm events: " + e.getMessage());
+            return false;
         }
     }
 
-    public static boolean doesSessionIdExist(String sessionId) {
-        String sql = "SELECT 1 FROM sensor_readings WHERE session_id = ? LIMIT 1";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, sessionId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next();
+    /**
+     * Inserts all readings and updates the affected rows of the sessions and rollup tables in one
+     * transaction.
+     *
+     * @return the id given to the first reading, the others following consecutively, or -1 if the
+     * batch was rolled back
+     */
+    public long saveSensorDataBatch(List<PendingReading> batch) {
+        synchronized (this) {
+            try {
+                Connection conn = requireWriter().connection();
+                conn.setAutoCommit(false);
+                try {
+                    PreparedStatement pstmt = writer.prepare(INSERT_SQL);
+                    // session id -> {start, end, count}; a batch almost always covers a single session
+                    Map<String, long[]> sessionStats = new HashMap<>(2);
+                    Rollups.BatchAccumulator rollups = new Rollups.BatchAccumulator(lastRollupTimes);
+                    for (PendingReading reading : batch) {
+                        bindReading(pstmt, reading);
+                        pstmt.addBatch();
+                        rollups.add(reading);
+
+                        long[] stats = sessionStats.computeIfAbsent(reading.sessionId(),
+                                id -> new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 0});
+                        stats[0] = Math.min(stats[0], reading.timestamp());
+                        stats[1] = Math.max(stats[1], reading.timestamp());
+                        stats[2]++;
+                    }
+                    pstmt.executeBatch();
+                    long firstId;
+                    // One writer and AUTOINCREMENT ids, so the batch got consecutive ids ending at the last one.
+                    try (ResultSet rs = writer.prepare("SELECT last_insert_rowid()").executeQuery()) {
+                        rs.next();
+                        firstId = rs.getLong(1) - batch.size() + 1;
+                    }
+
+                    PreparedStatement sessionStmt = writer.prepare(UPSERT_SESSION_SQL);
+                    for (Map.Entry<String, long[]> entry : sessionStats.entrySet()) {
+                        sessionStmt.setString(1, entry.getKey());
+                        sessionStmt.setLong(2, entry.getValue()[0]);
+                        sessionStmt.setLong(3, entry.getValue()[1]);
+                        sessionStmt.setLong(4, entry.getValue()[2]);
+                        sessionStmt.executeUpdate();
+                    }
+
+                    for (Map.Entry<RollupResolution, Map<Rollups.Key, Rollups.Accumulator>> entry : rollups.buckets.entrySet()) {
+                        PreparedStatement rollupStmt = writer.prepare(ROLLUP_UPSERT_SQL.get(entry.getKey()));
+                        for (Map.Entry<Rollups.Key, Rollups.Accumulator> bucket : entry.getValue().entrySet()) {
+                            Rollups.bindUpsert(rollupStmt, bucket.getKey(), bucket.getValue());
+                            rollupStmt.addBatch();
+                        }
+                        rollupStmt.executeBatch();
+                    }
+                    conn.commit();
+                    lastRollupTimes = rollups.lastTimes;
+                    return firstId;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error saving sensor data batch: " + e.getMessage());
+                return -1;
             }
+        }
+    }
+
+    private static void bindReading(PreparedStatement pstmt, PendingReading reading) throws SQLException {
+        SensorData data = reading.data();
+        pstmt.setString(1, reading.sessionId());
+        pstmt.setString(2, reading.deviceId());
+        pstmt.setLong(3, reading.timestamp());
+        pstmt.setDouble(4, reading.elapsedSeconds());
+        pstmt.setFloat(5, data.getTemperature());
+        pstmt.setInt(6, data.getHumidity());
+        pstmt.setInt(7, data.getLight());
+        pstmt.setInt(8, data.getFire());
+        pstmt.setInt(9, data.getS1());
+        pstmt.setInt(10, data.getS2());
+        pstmt.setInt(11, data.getSa());
+    }
+
+    public boolean doesSessionIdExist(String sessionId) {
+        String sql = "SELECT 1 FROM sessions WHERE session_id = ?";
+        try {
+            return withReader(conn -> {
+                PreparedStatement pstmt = conn.prepare(sql);
+                pstmt.setString(1, sessionId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next();
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error checking session ID: " + e.getMessage());
             return true;
         }
     }
 
-    public static List<SensorReading> getSensorReadings(String filterSql, List<Object> params) {
-        List<SensorReading> readings = new ArrayList<>();
-        String sql = "SELECT * FROM sensor_readings " + filterSql;
+    public List<SensorReading> getSensorReadings(String filterSql, List<Object> params) {
+        try {
+            return queryReadings("SELECT " + READING_COLUMNS + " FROM sensor_readings " + filterSql, params);
+        } catch (SQLException e) {
+            System.err.println("Error querying sensor data: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} rows matching {@code whereSql} that sort after {@code after} in
+     * {@code (timestamp, id)} descending order, or the first page if {@code after} is null.
+     * Seeks directly to the key instead of skipping rows, so every page costs the same.
+     */
+    public List<SensorReading> getSensorReadingsPage(String whereSql, List<Object> params, SensorReading after, int limit) {
+        try {
+            return getSensorReadingsPage(whereSql, params, after, limit, null);
+        } catch (SQLException e) {
+            System.err.println("Error querying sensor data page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            for (int i = 0; i < params.size(); i++) {
-                pstmt.setObject(i + 1, params.get(i));
+    /**
+     * Same as {@link #getSensorReadingsPage(String, List, SensorReading, int)}, but abortable through
+     * {@code cancellation} (which may be null) and reporting failures to the caller.
+     */
+    public List<SensorReading> getSensorReadingsPage(String whereSql, List<Object> params, SensorReading after, int limit,
+                                                     QueryCancellation cancellation) throws SQLException {
+        List<Object> pageParams = new ArrayList<>(params);
+        String keysetSql = "";
+        if (after != null) {
+            keysetSql = "AND (timestamp, id) < (?, ?) ";
+            pageParams.add(after.timestampMillis());
+            pageParams.add(after.id());
+        }
+        pageParams.add(limit);
+        return queryReadings("SELECT " + READING_COLUMNS + " FROM sensor_readings " + whereSql + keysetSql +
+                "ORDER BY timestamp DESC, id DESC LIMIT ?", pageParams, cancellation);
+    }
+
+    /**
+     * Offset-based fallback for jumping to a page whose predecessor's key is not known yet.
+     */
+    public List<SensorReading> getSensorReadingsPage(String whereSql, List<Object> params, int offset, int limit) {
+        try {
+            return getSensorReadingsPage(whereSql, params, offset, limit, null);
+        } catch (SQLException e) {
+            System.err.println("Error querying sensor data page: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    public List<SensorReading> getSensorReadingsPage(String whereSql, List<Object> params, int offset, int limit,
+                                                     QueryCancellation cancellation) throws SQLException {
+        List<Object> pageParams = new ArrayList<>(params);
+        pageParams.add(limit);
+        pageParams.add(offset);
+        return queryReadings("SELECT " + READING_COLUMNS + " FROM sensor_readings " + whereSql +
+                "ORDER BY timestamp DESC, id DESC LIMIT ? OFFSET ?", pageParams, cancellation);
+    }
+
+    /**
+     * Streams every row matching {@code whereSql}, newest first, through a forward-only cursor
+     * without materializing the result. Stops early when the visitor returns {@code false}.
+     */
+    public void forEachSensorReading(String whereSql, List<Object> params, ReadingVisitor visitor) throws SQLException, IOException {
+        forEachSensorReading(whereSql, params, false, visitor);
+    }
+
+    public void forEachSensorReading(String whereSql, List<Object> params, boolean oldestFirst, ReadingVisitor visitor) throws SQLException, IOException {
+        String sql = "SELECT " + READING_COLUMNS + " FROM sensor_readings " + whereSql +
+                (oldestFirst ? "ORDER BY timestamp, id" : "ORDER BY timestamp DESC, id DESC");
+        IOException[] failure = new IOException[1];
+        withReader(conn -> {
+            PreparedStatement pstmt = conn.prepare(sql);
+            bindParams(pstmt, params);
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                String sessionId = null;
+                while (rs.next()) {
+                    SensorReading reading = readRow(rs, sessionId);
+                    sessionId = reading.sessionId();
+                    if (!visitor.visit(reading)) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                failure[0] = e;
             }
+            return null;
+        }, false);
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
 
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                readings.add(new SensorReading(
-                        rs.getInt("id"),
-                        rs.getString("session_id"),
-                        rs.getString("timestamp"),
-                        rs.getDouble("elapsed_seconds"),
-                        rs.getFloat("temperature"),
-                        rs.getInt("humidity"),
-                        rs.getInt("light"),
-                        rs.getInt("fire"),
-                        rs.getInt("s1"),
-                        rs.getInt("s2"),
-                        rs.getInt("sa")
-                ));
+    /**
+     * The rows matching {@code whereSql} as a {@link ReadingSource}.
+     */
+    public ReadingSource readings(String whereSql, List<Object> params) {
+        List<Object> boundParams = List.copyOf(params);
+        return new ReadingSource() {
+            @Override
+            public int count() {
+                return countSensorReadings(whereSql, boundParams).count();
             }
+
+            @Override
+            public void forEach(ReadingVisitor visitor) throws SQLException, IOException {
+                forEachSensorReading(whereSql, boundParams, visitor);
+            }
+        };
+    }
+
+    public ReadingCount countSensorReadings(String whereSql, List<Object> params) {
+        try {
+            return countSensorReadings(whereSql, params, null);
         } catch (SQLException e) {
-            System.err.println("Error querying sensor data: " + e.getMessage());
+            System.err.println("Error counting sensor data: " + e.getMessage());
+            return new ReadingCount(0, 0);
         }
-        return readings;
     }
 
-    public static List<String> getDistinctSessionIds() {
-        List<String> sessionIds = new ArrayList<>();
-        String sql = "SELECT DISTINCT session_id FROM sensor_readings ORDER BY timestamp DESC";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                sessionIds.add(rs.getString("session_id"));
+    public ReadingCount countSensorReadings(String whereSql, List<Object> params, QueryCancellation cancellation) throws SQLException {
+        String sql = "SELECT COUNT(*), COALESCE(MAX(id), 0) FROM sensor_readings " + whereSql;
+        return withReader(conn -> {
+            PreparedStatement pstmt = conn.prepare(sql);
+            bindParams(pstmt, params);
+            begin(cancellation, pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return new ReadingCount(rs.getInt(1), rs.getInt(2));
+            } catch (SQLException e) {
+                conn.discard(sql);
+                throw e;
+            } finally {
+                end(cancellation);
+            }
+        });
+    }
+
+    private List<SensorReading> queryReadings(String sql, List<Object> params) throws SQLException {
+        return queryReadings(sql, params, null);
+    }
+
+    private List<SensorReading> queryReadings(String sql, List<Object> params, QueryCancellation cancellation) throws SQLException {
+        return withReader(conn -> {
+            List<SensorReading> readings = new ArrayList<>();
+            PreparedStatement pstmt = conn.prepare(sql);
+            bindParams(pstmt, params);
+            begin(cancellation, pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                String sessionId = null;
+                while (rs.next()) {
+                    SensorReading reading = readRow(rs, sessionId);
+                    sessionId = reading.sessionId();
+                    readings.add(reading);
+                }
+            } catch (SQLException e) {
+                conn.discard(sql);
+                throw e;
+            } finally {
+                end(cancellation);
             }
+            return readings;
+        });
+    }
+
+    private static void begin(QueryCancellation cancellation, Statement statement) throws SQLException {
+        if (cancellation != null) {
+            cancellation.begin(statement);
+        }
+    }
+
+    private static void end(QueryCancellation cancellation) {
+        if (cancellation != null) {
+            cancellation.end();
+        }
+    }
+
+    private static void bindParams(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Reads the current row of a {@link #READING_COLUMNS} result set by column index. Consecutive
+     * rows of the same session share one session id String instead of each keeping a copy.
+     */
+    private static SensorReading readRow(ResultSet rs, String previousSessionId) throws SQLException {
+        String sessionId = rs.getString(2);
+        if (sessionId != null && sessionId.equals(previousSessionId)) {
+            sessionId = previousSessionId;
+        }
+        return new SensorReading(
+                rs.getInt(1),
+                sessionId,
+                rs.getString(3),
+                rs.getLong(4),
+                rs.getDouble(5),
+                rs.getFloat(6),
+                rs.getInt(7),
+                rs.getInt(8),
+                rs.getInt(9),
+                rs.getInt(10),
+                rs.getInt(11),
+                rs.getInt(12)
+        );
+    }
+
+    /**
+     * Returns the aggregates of {@code [fromMillis, toMillis)} oldest first, at the finest
+     * resolution that needs no more than {@code maxBuckets} buckets (see
+     * {@link RollupResolution#forRange}). Buckets without readings are omitted.
+     *
+     * @param deviceId one device, or {@code null} to combine all devices
+     */
+    public List<RollupBucket> getRollups(String deviceId, long fromMillis, long toMillis, int maxBuckets) {
+        RollupResolution resolution = RollupResolution.forRange(fromMillis, toMillis, maxBuckets);
+        String sql = Rollups.querySql(resolution, deviceId != null);
+        try {
+            return withReader(conn -> {
+                PreparedStatement pstmt = conn.prepare(sql);
+                pstmt.setLong(1, resolution.bucketOf(fromMillis));
+                pstmt.setLong(2, toMillis);
+                if (deviceId != null) {
+                    pstmt.setString(3, deviceId);
+                }
+                List<RollupBucket> buckets = new ArrayList<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        buckets.add(Rollups.readBucket(rs, resolution));
+                    }
+                }
+                return buckets;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error querying rollups: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    public List<String> getDistinctSessionIds() {
+        String sql = "SELECT session_id FROM sessions ORDER BY start_time DESC";
+        try {
+            return withReader(conn -> {
+                List<String> sessionIds = new ArrayList<>();
+                try (ResultSet rs = conn.prepare(sql).executeQuery()) {
+                    while (rs.next()) {
+                        sessionIds.add(rs.getString("session_id"));
+                    }
+                }
+                return sessionIds;
+            });
         } catch (SQLException e) {
             System.err.println("Error getting session IDs: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Archive file of a session, or {@code null} if it has not been archived.
+     */
+    public String getArchivePath(String sessionId) {
+        String sql = "SELECT archive_path FROM sessions WHERE session_id = ?";
+        try {
+            return withReader(conn -> {
+                PreparedStatement pstmt = conn.prepare(sql);
+                pstmt.setString(1, sessionId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reading archive path: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Sessions whose rows now only exist in their archive, mapped to the archive file.
+     */
+    public Map<String, String> getArchiveOnlySessions() {
+        String sql = "SELECT session_id, archive_path FROM sessions WHERE archive_only = 1 ORDER BY start_time DESC";
+        try {
+            return withReader(conn -> {
+                Map<String, String> archives = new LinkedHashMap<>();
+                try (ResultSet rs = conn.prepare(sql).executeQuery()) {
+                    while (rs.next()) {
+                        archives.put(rs.getString(1), rs.getString(2));
+                    }
+                }
+                return archives;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error listing archived sessions: " + e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Sessions with an archive that ended before {@code cutoffMillis}, mapped to the archive file.
+     */
+    public Map<String, String> getArchivedSessionsEndedBefore(long cutoffMillis) throws SQLException {
+        return withReader(conn -> {
+            PreparedStatement pstmt = conn.prepare("SELECT session_id, archive_path FROM sessions " +
+                    "WHERE archive_path IS NOT NULL AND end_time < ? ORDER BY start_time");
+            pstmt.setLong(1, cutoffMillis);
+            Map<String, String> archives = new LinkedHashMap<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    archives.put(rs.getString(1), rs.getString(2));
+                }
+            }
+            return archives;
+        });
+    }
+
+    /**
+     * Removes a session from the sessions table together with any raw rows it still has.
+     */
+    public void deleteSession(String sessionId) throws SQLException {
+        inWriteTransaction(conn -> {
+            PreparedStatement readings = conn.prepare("DELETE FROM sensor_readings WHERE session_id = ?");
+            readings.setString(1, sessionId);
+            readings.executeUpdate();
+            PreparedStatement session = conn.prepare("DELETE FROM sessions WHERE session_id = ?");
+            session.setString(1, sessionId);
+            return session.executeUpdate();
+        });
+    }
+
+    /**
+     * Records that a session was written to {@code archivePath} and, if {@code deleteReadings} is
+     * set, removes its raw rows in the same transaction. Rollups are kept either way.
+     */
+    public boolean markSessionArchived(String sessionId, String archivePath, boolean deleteReadings) {
+        try {
+            inWriteTransaction(conn -> {
+                PreparedStatement update = conn.prepare("UPDATE sessions SET archive_path = ?, archive_only = ? WHERE session_id = ?");
+                update.setString(1, archivePath);
+                update.setInt(2, deleteReadings ? 1 : 0);
+                update.setString(3, sessionId);
+                update.executeUpdate();
+                if (deleteReadings) {
+                    PreparedStatement delete = conn.prepare("DELETE FROM sensor_readings WHERE session_id = ?");
+                    delete.setString(1, sessionId);
+                    delete.executeUpdate();
+                }
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error marking session archived: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Deletes up to {@code limit} raw readings older than {@code cutoffMillis}, oldest first, in one
+     * short transaction. Archived sessions that lose rows are switched to their archive in the same
+     * transaction, so they are never read from an incomplete set of raw rows.
+     *
+     * @return the number of rows deleted
+     */
+    public int deleteReadingsBefore(long cutoffMillis, int limit) throws SQLException {
+        return inWriteTransaction(conn -> {
+            PreparedStatement switchToArchive = conn.prepare("UPDATE sessions SET archive_only = 1 " +
+                    "WHERE archive_path IS NOT NULL AND archive_only = 0 AND session_id IN " +
+                    "(SELECT session_id FROM sensor_readings WHERE timestamp < ? ORDER BY timestamp LIMIT ?)");
+            switchToArchive.setLong(1, cutoffMillis);
+            switchToArchive.setInt(2, limit);
+            switchToArchive.executeUpdate();
+            PreparedStatement delete = conn.prepare("DELETE FROM sensor_readings WHERE id IN " +
+                    "(SELECT id FROM sensor_readings WHERE timestamp < ? ORDER BY timestamp LIMIT ?)");
+            delete.setLong(1, cutoffMillis);
+            delete.setInt(2, limit);
+            return delete.executeUpdate();
+        });
+    }
+
+    /**
+     * Deletes up to {@code limit} buckets of one rollup table that start before {@code cutoffMillis}.
+     *
+     * @return the number of buckets deleted
+     */
+    public int deleteRollupsBefore(RollupResolution resolution, long cutoffMillis, int limit) throws SQLException {
+        String table = resolution.getTable();
+        return inWriteTransaction(conn -> {
+            PreparedStatement delete = conn.prepare("DELETE FROM " + table + " WHERE (bucket, device_id) IN " +
+                    "(SELECT bucket, device_id FROM " + table + " WHERE bucket < ? ORDER BY bucket LIMIT ?)");
+            delete.setLong(1, cutoffMillis);
+            delete.setInt(2, limit);
+            return delete.executeUpdate();
+        });
+    }
+
+    /**
+     * Deletes the alarm events older than {@code cutoffMillis}.
+     *
+     * @return the number of events deleted
+     */
+    public int deleteAlarmEventsBefore(long cutoffMillis) throws SQLException {
+        return inWriteTransaction(conn -> {
+            PreparedStatement delete = conn.prepare("DELETE FROM alarm_events WHERE timestamp < ?");
+            delete.setLong(1, cutoffMillis);
+            return delete.executeUpdate();
+        });
+    }
+
+    /**
+     * Brings the sessions table in line after raw readings were deleted: row counts of sessions that
+     * started before {@code rawCutoffMillis} are recounted, and sessions that ended before
+     * {@code deleteCutoffMillis} and have neither rows nor an archive are removed.
+     *
+     * @return the number of sessions removed
+     */
+    public int pruneSessions(long rawCutoffMillis, long deleteCutoffMillis) throws SQLException {
+        return inWriteTransaction(conn -> {
+            PreparedStatement recount = conn.prepare("UPDATE sessions SET row_count = " +
+                    "(SELECT COUNT(*) FROM sensor_readings r WHERE r.session_id = sessions.session_id) " +
+                    "WHERE start_time < ? AND row_count > 0");
+            recount.setLong(1, rawCutoffMillis);
+            recount.executeUpdate();
+            PreparedStatement delete = conn.prepare("DELETE FROM sessions WHERE end_time < ? AND row_count = 0 AND archive_path IS NULL");
+            delete.setLong(1, deleteCutoffMillis);
+            return delete.executeUpdate();
+        });
+    }
+
+    /**
+     * Returns up to {@code pages} (at least one) free pages to the file system.
+     *
+     * @return the number of free pages left in the file
+     */
+    public int incrementalVacuum(int pages) throws SQLException {
+        synchronized (this) {
+            try (Statement stmt = requireWriter().connection().createStatement()) {
+                // A count of zero or less would release the whole free list in one go.
+                // execute() would step the pragma once, which releases a single page.
+                stmt.executeUpdate("PRAGMA incremental_vacuum(" + Math.max(1, pages) + ")");
+                return freePageCount(stmt);
+            }
+        }
+    }
+
+    public boolean isIncrementalVacuumEnabled() throws SQLException {
+        synchronized (this) {
+            try (Statement stmt = requireWriter().connection().createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum")) {
+                return rs.next() && rs.getInt(1) == 2;
+            }
+        }
+    }
+
+    /**
+     * Switches an existing database to incremental vacuum by rebuilding it with VACUUM, which
+     * rewrites the whole file, needs about as much free disk space again and blocks every write
+     * until it is done. {@code cancellation} aborts it, leaving the database as it was.
+     *
+     * @return the size of the rebuilt database in bytes
+     */
+    public long rebuildForIncrementalVacuum(QueryCancellation cancellation) throws SQLException {
+        synchronized (this) {
+            CachedConnection conn = requireWriter();
+            conn.clearStatements();
+            try (Statement stmt = conn.connection().createStatement()) {
+                stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                begin(cancellation, stmt);
+                try {
+                    stmt.execute("VACUUM");
+                } finally {
+                    end(cancellation);
+                }
+                // The rewritten pages sit in the WAL; write them back so the space is freed now.
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                return fileBytes(stmt);
+            }
+        }
+    }
+
+    private static long fileBytes(Statement stmt) throws SQLException {
+        long pages;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA page_count")) {
+            pages = rs.next() ? rs.getLong(1) : 0;
+        }
+        try (ResultSet rs = stmt.executeQuery("PRAGMA page_size")) {
+            return rs.next() ? pages * rs.getLong(1) : 0;
+        }
+    }
+
+    public int getFreePageCount() throws SQLException {
+        synchronized (this) {
+            try (Statement stmt = requireWriter().connection().createStatement()) {
+                return freePageCount(stmt);
+            }
+        }
+    }
+
+    private static int freePageCount(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Runs {@code work} on the writer connection in its own transaction, serialized with the ingest
+     * batches.
+     */
+    private <T> T inWriteTransaction(SqlFunction<T> work) throws SQLException {
+        synchronized (this) {
+            Connection conn = requireWriter().connection();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.apply(writer);
+                conn.commit();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+        CachedConnection conn;
+        while ((conn = readers.poll()) != null) {
+            conn.close();
         }
-        return sessionIds;
     }
 }
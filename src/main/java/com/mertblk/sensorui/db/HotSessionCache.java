@@ -0,0 +1,304 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.SensorData;
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recently committed rows of the active session, kept in preallocated primitive arrays
+ * (one ring per column) in the table's {@code (timestamp, id)} order. The write-behind stage adds
+ * each batch right after its commit, so the cache always agrees with the database.
+ * <p>
+ * Once full, the oldest rows are evicted. The cache then holds exactly the session's rows whose key
+ * is above the newest evicted one, which is what decides whether a query can be answered here: the
+ * query methods return {@code null} when part of the answer might only be in the database.
+ */
+public class HotSessionCache {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int mask;
+    private final int[] ids;
+    private final long[] timestamps;
+    private final double[] elapsedSeconds;
+    private final float[] temperatures;
+    private final int[] humidity;
+    private final int[] light;
+    private final int[] fire;
+    private final int[] s1;
+    private final int[] s2;
+    private final int[] sa;
+    private final short[] devices;
+    private final List<String> deviceIds = new ArrayList<>();
+
+    private String sessionId;
+    private int start = 0;
+    private int size = 0;
+    // True until the first row of the session is evicted.
+    private boolean complete = true;
+    // Key of the newest row that is not cached, and the highest id among the rows that are not cached.
+    private long lowTimestamp = Long.MIN_VALUE;
+    private int lowId = 0;
+    private int uncachedMaxId = 0;
+
+    /**
+     * @param capacity number of rows kept, a power of two
+     */
+    public HotSessionCache(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.ids = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.elapsedSeconds = new double[capacity];
+        this.temperatures = new float[capacity];
+        this.humidity = new int[capacity];
+        this.light = new int[capacity];
+        this.fire = new int[capacity];
+        this.s1 = new int[capacity];
+        this.s2 = new int[capacity];
+        this.sa = new int[capacity];
+        this.devices = new short[capacity];
+    }
+
+    /**
+     * Empties the cache and starts collecting the rows of {@code sessionId}, which must not have
+     * any rows in the database yet.
+     */
+    public synchronized void reset(String sessionId) {
+        this.sessionId = sessionId;
+        start = 0;
+        size = 0;
+        complete = true;
+        lowTimestamp = Long.MIN_VALUE;
+        lowId = 0;
+        uncachedMaxId = 0;
+        deviceIds.clear();
+    }
+
+    public synchronized String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Adds the rows of a committed batch that belong to the cached session.
+     *
+     * @param firstId id of the batch's first row; the others follow consecutively
+     */
+    public synchronized void append(List<PendingReading> batch, long firstId) {
+        if (sessionId == null) {
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingReading reading = batch.get(i);
+            if (sessionId.equals(reading.sessionId())) {
+                insert((int) (firstId + i), reading);
+            }
+        }
+    }
+
+    /**
+     * Drops the cached rows older than {@code cutoffMillis}, before retention deletes them from the
+     * database.
+     */
+    public synchronized void evictOlderThan(long cutoffMillis) {
+        while (size > 0 && timestamps[slot(0)] < cutoffMillis) {
+            int oldest = slot(0);
+            markUncached(timestamps[oldest], ids[oldest]);
+            start = (start + 1) & mask;
+            size--;
+        }
+    }
+
+    /**
+     * Count and highest id of the session's rows at or after {@code fromMillis}, or {@code null} if
+     * some of them may have been evicted.
+     */
+    public synchronized ReadingCount count(String sessionId, long fromMillis) {
+        return count(sessionId, fromMillis, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Like {@link #count(String, long)}, restricted to rows with an id above {@code afterId}.
+     */
+    public synchronized ReadingCount count(String sessionId, long fromMillis, int afterId) {
+        if (!covers(sessionId, fromMillis) && !(sessionId.equals(this.sessionId) && afterId >= uncachedMaxId)) {
+            return null;
+        }
+        int count = 0;
+        int maxId = 0;
+        for (int i = firstAtOrAfter(fromMillis); i < size; i++) {
+            int id = ids[slot(i)];
+            if (id > afterId) {
+                count++;
+                maxId = Math.max(maxId, id);
+            }
+        }
+        return new ReadingCount(count, maxId);
+    }
+
+    /**
+     * Up to {@code limit} rows at or after {@code fromMillis} that sort after {@code after} in
+     * {@code (timestamp, id)} descending order (from the newest if it is null), or {@code null}
+     * if the page reaches below the cached rows.
+     */
+    public synchronized List<SensorReading> page(String sessionId, long fromMillis, SensorReading after, int limit) {
+        if (!sessionId.equals(this.sessionId)) {
+            return null;
+        }
+        int end = after == null ? size : firstAtOrAbove(after.timestampMillis(), after.id());
+        int bottom = firstAtOrAfter(fromMillis);
+        if (end - bottom < limit && !covers(sessionId, fromMillis)) {
+            return null;
+        }
+        return copy(Math.max(bottom, end - limit), end);
+    }
+
+    /**
+     * Offset-based variant of {@link #page(String, long, SensorReading, int)}.
+     */
+    public synchronized List<SensorReading> page(String sessionId, long fromMillis, int offset, int limit) {
+        if (!sessionId.equals(this.sessionId)) {
+            return null;
+        }
+        int bottom = firstAtOrAfter(fromMillis);
+        int end = size - offset;
+        if (end - bottom < limit && !covers(sessionId, fromMillis)) {
+            return null;
+        }
+        return end <= bottom ? new ArrayList<>() : copy(Math.max(bottom, end - limit), end);
+    }
+
+    /**
+     * Whether every row of {@code sessionId} at or after {@code fromMillis} is cached.
+     */
+    private boolean covers(String sessionId, long fromMillis) {
+        return sessionId.equals(this.sessionId) && (complete || fromMillis > lowTimestamp);
+    }
+
+    private void insert(int id, PendingReading reading) {
+        long timestamp = reading.timestamp();
+        if (!complete && (timestamp < lowTimestamp || (timestamp == lowTimestamp && id < lowId))) {
+            // Older than rows that are already gone; caching it would leave a hole.
+            markUncached(timestamp, id);
+            return;
+        }
+        // Readings from several devices are committed almost, but not exactly, in timestamp order.
+        int position = size;
+        while (position > 0 && compare(position - 1, timestamp, id) > 0) {
+            position--;
+        }
+        if (size == ids.length) {
+            if (position == 0) {
+                markUncached(timestamp, id);
+                return;
+            }
+            int oldest = slot(0);
+            markUncached(timestamps[oldest], ids[oldest]);
+            start = (start + 1) & mask;
+            size--;
+            position--;
+        }
+
+        for (int i = size; i > position; i--) {
+            move(slot(i - 1), slot(i));
+        }
+        size++;
+
+        int slot = slot(position);
+        SensorData data = reading.data();
+        ids[slot] = id;
+        timestamps[slot] = timestamp;
+        elapsedSeconds[slot] = reading.elapsedSeconds();
+        temperatures[slot] = data.getTemperature();
+        humidity[slot] = data.getHumidity();
+        light[slot] = data.getLight();
+        fire[slot] = data.getFire();
+        s1[slot] = data.getS1();
+        s2[slot] = data.getS2();
+        sa[slot] = data.getSa();
+        devices[slot] = deviceIndex(reading.deviceId());
+    }
+
+    private void markUncached(long timestamp, int id) {
+        if (complete || timestamp > lowTimestamp || (timestamp == lowTimestamp && id > lowId)) {
+            lowTimestamp = timestamp;
+            lowId = id;
+        }
+        complete = false;
+        uncachedMaxId = Math.max(uncachedMaxId, id);
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        timestamps[to] = timestamps[from];
+        elapsedSeconds[to] = elapsedSeconds[from];
+        temperatures[to] = temperatures[from];
+        humidity[to] = humidity[from];
+        light[to] = light[from];
+        fire[to] = fire[from];
+        s1[to] = s1[from];
+        s2[to] = s2[from];
+        sa[to] = sa[from];
+        devices[to] = devices[from];
+    }
+
+    private short deviceIndex(String deviceId) {
+        int index = deviceIds.indexOf(deviceId);
+        if (index < 0) {
+            index = deviceIds.size();
+            deviceIds.add(deviceId);
+        }
+        return (short) index;
+    }
+
+    /**
+     * Rows {@code [from, to)} in ascending order, returned newest first.
+     */
+    private List<SensorReading> copy(int from, int to) {
+        List<SensorReading> rows = new ArrayList<>(Math.max(0, to - from));
+        for (int i = to - 1; i >= from; i--) {
+            int slot = slot(i);
+            rows.add(new SensorReading(ids[slot], sessionId, deviceIds.get(devices[slot]), timestamps[slot], elapsedSeconds[slot],
+                    temperatures[slot], humidity[slot], light[slot], fire[slot], s1[slot], s2[slot], sa[slot]));
+        }
+        return rows;
+    }
+
+    private int compare(int index, long timestamp, int id) {
+        int slot = slot(index);
+        int byTime = Long.compare(timestamps[slot], timestamp);
+        return byTime != 0 ? byTime : Integer.compare(ids[slot], id);
+    }
+
+    /**
+     * Index of the first cached row with a timestamp of at least {@code fromMillis}.
+     */
+    private int firstAtOrAfter(long fromMillis) {
+        return firstAtOrAbove(fromMillis, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Index of the first cached row whose {@code (timestamp, id)} is at least the given key.
+     */
+    private int firstAtOrAbove(long timestamp, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, timestamp, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int slot(int index) {
+        return (start + index) & mask;
+    }
+}
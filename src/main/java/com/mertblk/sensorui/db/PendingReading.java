@@ -0,0 +1,12 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.SensorData;
+
+/**
+ * A reading that has been accepted by the write-behind queue but not yet committed.
+ * The timestamp (epoch milliseconds) is captured at ingest time so batching does not skew it;
+ * {@code queuedNanos} is the {@link System#nanoTime()} at the same moment, used to measure commit latency.
+ */
+public record PendingReading(String sessionId, String deviceId, long timestamp, double elapsedSeconds, SensorData data,
+                             long queuedNanos) {
+}
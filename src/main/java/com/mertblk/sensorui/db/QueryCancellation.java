@@ -0,0 +1,42 @@
+package com.mertblk.sensorui.db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Lets another thread abort the queries issued with it. {@link #cancel()} interrupts the statement
+ * that is executing at that moment through {@link Statement#cancel()} and makes every later query
+ * using this instance fail right away, so work queued behind a superseded request is skipped.
+ */
+public final class QueryCancellation {
+
+    private Statement running;
+    private boolean cancelled;
+
+    public synchronized void cancel() {
+        cancelled = true;
+        if (running != null) {
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                System.err.println("Error cancelling query: " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    synchronized void begin(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query cancelled");
+        }
+        running = statement;
+    }
+
+    // Cleared under the lock so a late cancel() can never interrupt the next user of the connection.
+    synchronized void end() {
+        running = null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.mertblk.sensorui.db;
+
+/**
+ * Number of rows matching a filter and the highest row id among them.
+ */
+public record ReadingCount(int count, int maxId) {
+}
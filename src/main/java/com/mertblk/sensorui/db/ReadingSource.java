@@ -0,0 +1,50 @@
+package com.mertblk.sensorui.db;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A set of rows that can be counted and streamed newest first, whether it lives in
+ * {@code sensor_readings} or in a session archive.
+ */
+public interface ReadingSource {
+
+    int count();
+
+    /**
+     * Streams the rows newest first. Stops early when the visitor returns {@code false}.
+     */
+    void forEach(ReadingVisitor visitor) throws SQLException, IOException;
+
+    /**
+     * Rows of all {@code sources}, one source after the other.
+     */
+    static ReadingSource concat(List<? extends ReadingSource> sources) {
+        List<ReadingSource> parts = List.copyOf(sources);
+        return new ReadingSource() {
+            @Override
+            public int count() {
+                int total = 0;
+                for (ReadingSource source : parts) {
+                    total += source.count();
+                }
+                return total;
+            }
+
+            @Override
+            public void forEach(ReadingVisitor visitor) throws SQLException, IOException {
+                boolean[] stopped = {false};
+                for (ReadingSource source : parts) {
+                    source.forEach(reading -> {
+                        stopped[0] = !visitor.visit(reading);
+                        return !stopped[0];
+                    });
+                    if (stopped[0]) {
+                        return;
+                    }
+                }
+            }
+        };
+    }
+}
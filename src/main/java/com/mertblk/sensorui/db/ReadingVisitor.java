@@ -0,0 +1,17 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.io.IOException;
+
+/**
+ * Receives rows one at a time from {@link DatabaseManager#forEachSensorReading} or a {@link ReadingSource}.
+ */
+@FunctionalInterface
+public interface ReadingVisitor {
+
+    /**
+     * @return {@code false} to stop the iteration
+     */
+    boolean visit(SensorReading reading) throws IOException;
+}
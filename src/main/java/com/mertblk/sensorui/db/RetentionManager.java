@@ -0,0 +1,156 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.archive.ArchiveStore;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies a {@link RetentionPolicy} in the background. Every pass deletes expired raw readings and
+ * rollups in small chunks, each its own short transaction with a pause after it, so the ingest
+ * writer is never held up for long; then prunes the sessions table, deletes archived sessions and
+ * their archive files once they are older than {@code maxDays}, and returns the freed pages to the
+ * file system with incremental vacuum. A database that is not in incremental mode yet is only
+ * rebuilt into it when the policy asks for that.
+ */
+public class RetentionManager {
+
+    private static final long FIRST_PASS_DELAY_MINUTES = 1;
+    private static final int DELETE_CHUNK_ROWS = 2000;
+    private static final long CHUNK_PAUSE_MS = 50;
+    private static final int VACUUM_CHUNK_PAGES = 1024;
+
+    private final DatabaseManager database;
+    private final HotSessionCache cache;
+    private final ArchiveStore archiveStore;
+    private final RetentionPolicy policy;
+    private final QueryCancellation cancellation = new QueryCancellation();
+    private boolean rebuildChecked = false;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database-retention");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    public RetentionManager(DatabaseManager database, HotSessionCache cache, ArchiveStore archiveStore,
+                            RetentionPolicy policy) {
+        this.database = database;
+        this.cache = cache;
+        this.archiveStore = archiveStore;
+        this.policy = policy;
+    }
+
+    public void start() {
+        if (!policy.isEnabled()) {
+            System.out.println("Data retention is off; all data is kept. Set sensorui.retention.rawDays or sensorui.retention.maxDays to enable it.");
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::runPass, FIRST_PASS_DELAY_MINUTES, policy.intervalMinutes(), TimeUnit.MINUTES);
+    }
+
+    public void shutdown() {
+        // Aborts a running rebuild, which would otherwise hold the writer until it finishes.
+        cancellation.cancel();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs one retention pass on the calling thread.
+     */
+    void runPass() {
+        long now = System.currentTimeMillis();
+        long rawCutoff = policy.rawCutoff(now);
+        long maxCutoff = policy.maxCutoff(now);
+        try {
+            cache.evictOlderThan(rawCutoff);
+            int readings = deleteInChunks(() -> database.deleteReadingsBefore(rawCutoff, DELETE_CHUNK_ROWS));
+            int rollups = deleteInChunks(() -> database.deleteRollupsBefore(RollupResolution.SECOND, rawCutoff, DELETE_CHUNK_ROWS));
+            if (maxCutoff != Long.MIN_VALUE) {
+                rollups += deleteInChunks(() -> database.deleteRollupsBefore(RollupResolution.MINUTE, maxCutoff, DELETE_CHUNK_ROWS));
+                rollups += deleteInChunks(() -> database.deleteRollupsBefore(RollupResolution.HOUR, maxCutoff, DELETE_CHUNK_ROWS));
+            }
+            int sessions = database.pruneSessions(rawCutoff, maxCutoff);
+            if (maxCutoff != Long.MIN_VALUE) {
+                sessions += archiveStore.deleteArchivesBefore(maxCutoff);
+                database.deleteAlarmEventsBefore(maxCutoff);
+            }
+            int pagesFreed = vacuum();
+            if (readings > 0 || rollups > 0 || sessions > 0 || pagesFreed > 0) {
+                System.out.println("Retention: deleted " + readings + " readings, " + rollups + " rollup buckets, "
+                        + sessions + " sessions; released " + pagesFreed + " pages");
+            }
+            if (!rebuildChecked) {
+                rebuildChecked = true;
+                rebuildIfRequested();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error applying data retention: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int deleteInChunks(Chunk chunk) throws SQLException, InterruptedException {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = chunk.delete();
+            total += deleted;
+            if (deleted > 0) {
+                Thread.sleep(CHUNK_PAUSE_MS);
+            }
+        } while (deleted == DELETE_CHUNK_ROWS);
+        return total;
+    }
+
+    /**
+     * @return the number of pages released
+     */
+    private int vacuum() throws SQLException, InterruptedException {
+        int before = database.getFreePageCount();
+        int left = before;
+        while (left > 0) {
+            int previous = left;
+            left = database.incrementalVacuum(VACUUM_CHUNK_PAGES);
+            if (left >= previous) {
+                // Nothing could be released, e.g. the database is not in incremental mode.
+                break;
+            }
+            Thread.sleep(CHUNK_PAUSE_MS);
+        }
+        return before - left;
+    }
+
+    /**
+     * Runs the one-time rebuild into incremental vacuum mode if the database needs it and the
+     * policy asks for it; otherwise says how to ask.
+     */
+    private void rebuildIfRequested() {
+        try {
+            if (database.isIncrementalVacuumEnabled()) {
+                return;
+            }
+            if (!policy.rebuildDatabase()) {
+                System.out.println("Retention: the database predates incremental vacuum, so deleted data is reused "
+                        + "but the file does not shrink. Start once with -Dsensorui.retention.rebuildDatabase=true "
+                        + "to rebuild it (needs as much free disk space as the file takes).");
+                return;
+            }
+            System.out.println("Retention: rebuilding the database for incremental vacuum...");
+            long start = System.nanoTime();
+            long size = database.rebuildForIncrementalVacuum(cancellation);
+            System.out.println("Retention: database rebuilt in " + (System.nanoTime() - start) / 1_000_000 + " ms, "
+                    + size / 1024 + " KiB now");
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding the database: " + e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Chunk {
+        int delete() throws SQLException;
+    }
+}
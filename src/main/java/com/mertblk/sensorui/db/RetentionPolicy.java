@@ -0,0 +1,75 @@
+package com.mertblk.sensorui.db;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long recorded data is kept. Raw readings (and the 1-second rollups, which are about as large)
+ * are kept for {@code rawDays}; the 1-minute and 1-hour rollups, alarm events and sessions, archived
+ * ones and their archive files included, for {@code maxDays}. A value of zero or less keeps that tier
+ * forever.
+ * <p>
+ * Retention deletes data for good, so it is off unless asked for: nothing is deleted until at least
+ * one of the system properties {@code sensorui.retention.rawDays} or {@code sensorui.retention.maxDays}
+ * is set to a positive number of days, e.g. {@code -Dsensorui.retention.rawDays=30
+ * -Dsensorui.retention.maxDays=365}. {@code sensorui.retention.intervalMinutes} (default
+ * {@value #DEFAULT_INTERVAL_MINUTES}) sets how often a pass runs.
+ * <p>
+ * Databases created before incremental vacuum was enabled reuse the space retention frees, but
+ * their file never shrinks. {@code -Dsensorui.retention.rebuildDatabase=true} rebuilds such a
+ * database once, after the next pass; the rebuild rewrites the whole file and needs as much free
+ * disk space again.
+ */
+public record RetentionPolicy(double rawDays, double maxDays, long intervalMinutes, boolean rebuildDatabase) {
+
+    /** Keep forever. */
+    public static final double DEFAULT_RAW_DAYS = 0;
+    /** Keep forever. */
+    public static final double DEFAULT_MAX_DAYS = 0;
+    public static final long DEFAULT_INTERVAL_MINUTES = 60;
+
+    public static RetentionPolicy fromSystemProperties() {
+        return new RetentionPolicy(
+                doubleProperty("sensorui.retention.rawDays", DEFAULT_RAW_DAYS),
+                doubleProperty("sensorui.retention.maxDays", DEFAULT_MAX_DAYS),
+                Math.max(1, (long) doubleProperty("sensorui.retention.intervalMinutes", DEFAULT_INTERVAL_MINUTES)),
+                Boolean.getBoolean("sensorui.retention.rebuildDatabase"));
+    }
+
+    /**
+     * False unless {@code rawDays} or {@code maxDays} was set, which with the defaults means retention is off.
+     */
+    public boolean isEnabled() {
+        return rawDays > 0 || maxDays > 0;
+    }
+
+    /**
+     * Readings older than this are deleted; also applies when only {@code maxDays} is set.
+     */
+    long rawCutoff(long nowMillis) {
+        if (rawDays > 0 && maxDays > 0) {
+            return nowMillis - toMillis(Math.min(rawDays, maxDays));
+        }
+        return rawDays > 0 ? nowMillis - toMillis(rawDays) : maxCutoff(nowMillis);
+    }
+
+    long maxCutoff(long nowMillis) {
+        return maxDays > 0 ? nowMillis - toMillis(maxDays) : Long.MIN_VALUE;
+    }
+
+    private static long toMillis(double days) {
+        return (long) (days * TimeUnit.DAYS.toMillis(1));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.SensorChannel;
+
+/**
+ * Aggregates of all readings in one time bucket. Per-channel values are indexed by
+ * {@link SensorChannel#ordinal()}; use the accessors.
+ */
+public record RollupBucket(long bucketStart, RollupResolution resolution, long count,
+                           float[] min, float[] max, double[] sum, long[] onMillis) {
+
+    public float min(SensorChannel channel) {
+        return min[channel.ordinal()];
+    }
+
+    public float max(SensorChannel channel) {
+        return max[channel.ordinal()];
+    }
+
+    public double average(SensorChannel channel) {
+        return count == 0 ? Double.NaN : sum[channel.ordinal()] / count;
+    }
+
+    /**
+     * Time a binary channel spent on within the bucket, each sample covering the gap since the
+     * device's previous sample (at most 10 seconds). Zero for analog channels.
+     */
+    public long onMillis(SensorChannel channel) {
+        return onMillis[channel.ordinal()];
+    }
+}
@@ -0,0 +1,45 @@
+package com.mertblk.sensorui.db;
+
+/**
+ * Bucket sizes the rollup tables are kept at, finest first.
+ */
+public enum RollupResolution {
+
+    SECOND(1_000L, "rollup_1s"),
+    MINUTE(60_000L, "rollup_1m"),
+    HOUR(3_600_000L, "rollup_1h");
+
+    private final long bucketMillis;
+    private final String table;
+
+    RollupResolution(long bucketMillis, String table) {
+        this.bucketMillis = bucketMillis;
+        this.table = table;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    long bucketOf(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, bucketMillis) * bucketMillis;
+    }
+
+    /**
+     * The finest resolution that covers {@code [fromMillis, toMillis)} in at most {@code maxBuckets}
+     * buckets, i.e. the coarsest one the range actually needs; {@link #HOUR} if none does.
+     */
+    public static RollupResolution forRange(long fromMillis, long toMillis, int maxBuckets) {
+        for (RollupResolution resolution : values()) {
+            long buckets = (toMillis - fromMillis + resolution.bucketMillis - 1) / resolution.bucketMillis;
+            if (buckets <= maxBuckets) {
+                return resolution;
+            }
+        }
+        return HOUR;
+    }
+}
@@ -0,0 +1,192 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorData;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL and in-memory accumulation for the {@link RollupResolution rollup tables}. Every table row
+ * holds, per device and bucket, the sample count and per-channel min/max/sum, plus on-durations
+ * for the binary channels. Rows are only ever merged into with an UPSERT, so writing a batch
+ * costs one statement per touched bucket regardless of how many readings it contained.
+ */
+final class Rollups {
+
+    /**
+     * Longest gap a single sample is taken to cover when adding up on-durations, so a device that
+     * was unplugged for an hour does not report an hour of alarm.
+     */
+    static final long MAX_ON_GAP_MILLIS = 10_000;
+
+    private static final SensorChannel[] CHANNELS = SensorChannel.values();
+
+    private Rollups() {
+    }
+
+    record Key(String deviceId, long bucket) {
+    }
+
+    /**
+     * Running aggregates of one bucket within a batch.
+     */
+    static final class Accumulator {
+        long count;
+        final float[] min = new float[CHANNELS.length];
+        final float[] max = new float[CHANNELS.length];
+        final double[] sum = new double[CHANNELS.length];
+        final long[] onMillis = new long[CHANNELS.length];
+
+        void add(SensorData data, long gapMillis) {
+            for (SensorChannel channel : CHANNELS) {
+                int c = channel.ordinal();
+                float value = channel.read(data);
+                min[c] = count == 0 ? value : Math.min(min[c], value);
+                max[c] = count == 0 ? value : Math.max(max[c], value);
+                sum[c] += value;
+                if (channel.isBinary() && value != 0) {
+                    onMillis[c] += gapMillis;
+                }
+            }
+            count++;
+        }
+    }
+
+    static String createTableSql(RollupResolution resolution) {
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(resolution.getTable())
+                .append(" (bucket INTEGER NOT NULL, device_id TEXT NOT NULL, sample_count INTEGER NOT NULL");
+        for (SensorChannel channel : CHANNELS) {
+            String column = channel.getColumn();
+            sql.append(", ").append(column).append("_min REAL, ").append(column).append("_max REAL, ")
+                    .append(column).append("_sum REAL");
+            if (channel.isBinary()) {
+                sql.append(", ").append(column).append("_on_ms INTEGER NOT NULL DEFAULT 0");
+            }
+        }
+        return sql.append(", PRIMARY KEY (bucket, device_id)) WITHOUT ROWID").toString();
+    }
+
+    static String upsertSql(RollupResolution resolution) {
+        StringBuilder columns = new StringBuilder("bucket, device_id, sample_count");
+        StringBuilder values = new StringBuilder("?, ?, ?");
+        StringBuilder updates = new StringBuilder("sample_count = sample_count + excluded.sample_count");
+        for (SensorChannel channel : CHANNELS) {
+            String column = channel.getColumn();
+            columns.append(", ").append(column).append("_min, ").append(column).append("_max, ").append(column).append("_sum");
+            values.append(", ?, ?, ?");
+            updates.append(", ").append(column).append("_min = MIN(").append(column).append("_min, excluded.").append(column).append("_min)")
+                    .append(", ").append(column).append("_max = MAX(").append(column).append("_max, excluded.").append(column).append("_max)")
+                    .append(", ").append(column).append("_sum = ").append(column).append("_sum + excluded.").append(column).append("_sum");
+            if (channel.isBinary()) {
+                columns.append(", ").append(column).append("_on_ms");
+                values.append(", ?");
+                updates.append(", ").append(column).append("_on_ms = ").append(column).append("_on_ms + excluded.").append(column).append("_on_ms");
+            }
+        }
+        return "INSERT INTO " + resolution.getTable() + "(" + columns + ") VALUES(" + values + ") " +
+                "ON CONFLICT(bucket, device_id) DO UPDATE SET " + updates;
+    }
+
+    /**
+     * Builds the table from {@code sensor_readings} in one pass; used once when the rollup tables
+     * are added to an existing database.
+     */
+    static void backfill(Statement stmt, RollupResolution resolution) throws SQLException {
+        StringBuilder columns = new StringBuilder("bucket, device_id, sample_count");
+        StringBuilder aggregates = new StringBuilder("(timestamp / ").append(resolution.getBucketMillis()).append(") * ")
+                .append(resolution.getBucketMillis()).append(", COALESCE(device_id, ''), COUNT(*)");
+        for (SensorChannel channel : CHANNELS) {
+            String column = channel.getColumn();
+            columns.append(", ").append(column).append("_min, ").append(column).append("_max, ").append(column).append("_sum");
+            aggregates.append(", MIN(").append(column).append("), MAX(").append(column).append("), SUM(").append(column).append(")");
+            if (channel.isBinary()) {
+                columns.append(", ").append(column).append("_on_ms");
+                aggregates.append(", SUM(CASE WHEN ").append(column).append(" != 0 THEN gap ELSE 0 END)");
+            }
+        }
+        stmt.execute("INSERT INTO " + resolution.getTable() + "(" + columns + ") " +
+                "SELECT " + aggregates + " FROM (SELECT *, MIN(COALESCE(timestamp - LAG(timestamp) OVER " +
+                "(PARTITION BY device_id ORDER BY timestamp, id), 0), " + MAX_ON_GAP_MILLIS + ") AS gap FROM sensor_readings) " +
+                "GROUP BY 1, 2");
+    }
+
+    static void bindUpsert(PreparedStatement pstmt, Key key, Accumulator acc) throws SQLException {
+        int p = 1;
+        pstmt.setLong(p++, key.bucket());
+        pstmt.setString(p++, key.deviceId());
+        pstmt.setLong(p++, acc.count);
+        for (SensorChannel channel : CHANNELS) {
+            int c = channel.ordinal();
+            pstmt.setFloat(p++, acc.min[c]);
+            pstmt.setFloat(p++, acc.max[c]);
+            pstmt.setDouble(p++, acc.sum[c]);
+            if (channel.isBinary()) {
+                pstmt.setLong(p++, acc.onMillis[c]);
+            }
+        }
+    }
+
+    static String querySql(RollupResolution resolution, boolean byDevice) {
+        StringBuilder sql = new StringBuilder("SELECT bucket, SUM(sample_count)");
+        for (SensorChannel channel : CHANNELS) {
+            String column = channel.getColumn();
+            sql.append(", MIN(").append(column).append("_min), MAX(").append(column).append("_max), SUM(")
+                    .append(column).append("_sum)");
+            if (channel.isBinary()) {
+                sql.append(", SUM(").append(column).append("_on_ms)");
+            }
+        }
+        sql.append(" FROM ").append(resolution.getTable()).append(" WHERE bucket >= ? AND bucket < ? ");
+        if (byDevice) {
+            sql.append("AND device_id = ? ");
+        }
+        return sql.append("GROUP BY bucket ORDER BY bucket").toString();
+    }
+
+    static RollupBucket readBucket(ResultSet rs, RollupResolution resolution) throws SQLException {
+        float[] min = new float[CHANNELS.length];
+        float[] max = new float[CHANNELS.length];
+        double[] sum = new double[CHANNELS.length];
+        long[] onMillis = new long[CHANNELS.length];
+        int column = 3;
+        for (SensorChannel channel : CHANNELS) {
+            int c = channel.ordinal();
+            min[c] = rs.getFloat(column++);
+            max[c] = rs.getFloat(column++);
+            sum[c] = rs.getDouble(column++);
+            if (channel.isBinary()) {
+                onMillis[c] = rs.getLong(column++);
+            }
+        }
+        return new RollupBucket(rs.getLong(1), resolution, rs.getLong(2), min, max, sum, onMillis);
+    }
+
+    /**
+     * Per-resolution accumulators for one batch, plus the newest timestamp seen per device so the
+     * next batch can continue the on-duration gaps.
+     */
+    static final class BatchAccumulator {
+        final Map<RollupResolution, Map<Key, Accumulator>> buckets = new HashMap<>();
+        final Map<String, Long> lastTimes;
+
+        BatchAccumulator(Map<String, Long> previousLastTimes) {
+            this.lastTimes = new HashMap<>(previousLastTimes);
+        }
+
+        void add(PendingReading reading) {
+            String deviceId = reading.deviceId() == null ? "" : reading.deviceId();
+            Long previous = lastTimes.put(deviceId, reading.timestamp());
+            long gap = previous == null ? 0 : Math.max(0, Math.min(reading.timestamp() - previous, MAX_ON_GAP_MILLIS));
+            for (RollupResolution resolution : RollupResolution.values()) {
+                buckets.computeIfAbsent(resolution, r -> new HashMap<>(4))
+                        .computeIfAbsent(new Key(deviceId, resolution.bucketOf(reading.timestamp())), k -> new Accumulator())
+                        .add(reading.data(), gap);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.metrics.IngestMetrics;
+import com.mertblk.sensorui.model.SensorData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind persistence stage. Readings are offered to a bounded queue by the ingest path
+ * and drained by a single writer thread, which commits them in one transaction per batch.
+ * A batch is flushed when it reaches {@link #MAX_BATCH_SIZE} rows or when its oldest row has
+ * waited {@link #MAX_BATCH_DELAY_MS} milliseconds, whichever comes first.
+ */
+public class SensorDataWriter {
+
+    /**
+     * Called on the writer thread after each batch is committed.
+     */
+    public interface CommitListener {
+
+        /**
+         * @param firstId id of the batch's first row; the others follow consecutively
+         */
+        void committed(List<PendingReading> batch, long firstId);
+    }
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final long MAX_BATCH_DELAY_MS = 250;
+
+    private static final PendingReading FLUSH_MARKER = new PendingReading(null, null, 0, 0, null, 0);
+
+    private final BlockingQueue<PendingReading> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final DatabaseManager database;
+    private final CommitListener onCommit;
+    private final Thread writerThread;
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition committed = commitLock.newCondition();
+    private long committedCount = 0;
+
+    private volatile long lastCommitLatencyNanos = 0;
+    private volatile int lastBatchSize = 0;
+    private volatile boolean running = true;
+
+    public SensorDataWriter(DatabaseManager database, CommitListener onCommit) {
+        this.database = database;
+        this.onCommit = onCommit;
+        IngestMetrics.WRITE_QUEUE_DEPTH.bind(queue::size);
+        this.writerThread = new Thread(this::drainLoop, "sensor-data-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a reading for persistence. Never blocks the caller; if the queue is full the
+     * reading is dropped and counted in {@link #getDroppedCount()}.
+     */
+    public boolean enqueue(String sessionId, String deviceId, double elapsedSeconds, SensorData data) {
+        PendingReading reading = new PendingReading(sessionId, deviceId, System.currentTimeMillis(), elapsedSeconds, data, System.nanoTime());
+        if (queue.offer(reading)) {
+            enqueuedCount.incrementAndGet();
+            return true;
+        }
+        droppedCount.incrementAndGet();
+        IngestMetrics.ROWS_DROPPED.increment();
+        return false;
+    }
+
+    /**
+     * Blocks until every reading enqueued before this call has been committed (or dropped
+     * because its batch failed).
+     */
+    public void flush() {
+        long target = enqueuedCount.get();
+        try {
+            queue.put(FLUSH_MARKER);
+            commitLock.lock();
+            try {
+                while (committedCount < target && writerThread.isAlive()) {
+                    committed.await(MAX_BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                commitLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Same as {@link #flush()} but waits on a virtual thread, so callers on the FX thread never
+     * block on disk I/O.
+     */
+    public CompletableFuture<Void> flushAsync() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Thread.ofVirtual().name("sensor-data-flush").start(() -> {
+            flush();
+            done.complete(null);
+        });
+        return done;
+    }
+
+    public void shutdown() {
+        flush();
+        running = false;
+        writerThread.interrupt();
+    }
+
+    private void drainLoop() {
+        List<PendingReading> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running) {
+            try {
+                PendingReading first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                boolean flushRequested = first == FLUSH_MARKER;
+                if (!flushRequested) {
+                    batch.add(first);
+                }
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_BATCH_DELAY_MS);
+                while (!flushRequested && batch.size() < MAX_BATCH_SIZE) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingReading next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == FLUSH_MARKER) {
+                        flushRequested = true;
+                    } else {
+                        batch.add(next);
+                    }
+                }
+
+                commit(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            }
+        }
+        commit(batch);
+    }
+
+    private void commit(List<PendingReading> batch) {
+        if (!batch.isEmpty()) {
+            long start = System.nanoTime();
+            long firstId = database.saveSensorDataBatch(batch);
+            long end = System.nanoTime();
+            lastCommitLatencyNanos = end - start;
+            lastBatchSize = batch.size();
+            IngestMetrics.COMMIT.record(end - start);
+            if (firstId >= 0) {
+                IngestMetrics.ROWS_PERSISTED.add(batch.size());
+                for (PendingReading reading : batch) {
+                    IngestMetrics.PARSE_TO_COMMIT.record(end - reading.queuedNanos());
+                }
+                if (onCommit != null) {
+                    onCommit.committed(batch, firstId);
+                }
+            } else {
+                droppedCount.addAndGet(batch.size());
+                IngestMetrics.ROWS_DROPPED.add(batch.size());
+            }
+        }
+
+        commitLock.lock();
+        try {
+            committedCount += batch.size();
+            committed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public double getLastCommitLatencyMillis() {
+        return lastCommitLatencyNanos / 1_000_000.0;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
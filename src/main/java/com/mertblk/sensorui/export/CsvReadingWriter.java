@@ -0,0 +1,62 @@
+package com.mertblk.sensorui.export;
+
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * RFC 4180 CSV with a header row, optionally gzip-compressed. Timestamps are epoch milliseconds,
+ * as stored in the database, so they need no time zone to interpret.
+ */
+class CsvReadingWriter extends TextReadingWriter {
+
+    private static final String HEADER = "id,session_id,device_id,timestamp_ms,elapsed_seconds,temperature,humidity,light,fire,s1,s2,sa\r\n";
+
+    CsvReadingWriter(Path file, boolean compress) throws IOException {
+        super(file, compress);
+        put(HEADER);
+    }
+
+    @Override
+    public void write(SensorReading reading) throws IOException {
+        put(reading.id());
+        put(',');
+        putField(reading.sessionId());
+        put(',');
+        putField(reading.deviceId());
+        put(',');
+        put(reading.timestampMillis());
+        put(',');
+        put(reading.elapsedSeconds(), ELAPSED_DECIMALS);
+        put(',');
+        put(reading.temperature(), TEMPERATURE_DECIMALS);
+        put(',');
+        put(reading.humidity());
+        put(',');
+        put(reading.light());
+        put(',');
+        put(reading.fire());
+        put(',');
+        put(reading.s1());
+        put(',');
+        put(reading.s2());
+        put(',');
+        put(reading.sa());
+        put('\r');
+        put('\n');
+    }
+
+    private void putField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            put(value);
+            return;
+        }
+        put('"');
+        put(value.replace("\"", "\"\""));
+        put('"');
+    }
+}
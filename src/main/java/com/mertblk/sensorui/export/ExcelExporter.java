@@ -0,0 +1,84 @@
+package com.mertblk.sensorui.export;
+
+import com.mertblk.sensorui.model.SensorReading;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes readings to an .xlsx file through POI's streaming workbook. Only the last
+ * {@link #ROW_WINDOW} rows are kept in memory; older rows are flushed to a temp file, and the
+ * workbook itself is only written out by {@link #finish()}.
+ * A new sheet is started whenever the current one reaches Excel's row limit.
+ */
+public class ExcelExporter implements SensorReadingWriter {
+
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final String[] HEADERS = {"ID", "Session ID", "Device", "Timestamp", "Elapsed (s)", "Temp (°C)", "Humidity (%)", "Light", "Fire", "S1", "S2", "SA"};
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+    private final File file;
+    private Sheet sheet;
+    private int sheetCount = 0;
+    private int rowNum = 0;
+
+    public ExcelExporter(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void write(SensorReading reading) {
+        if (sheet == null || rowNum == MAX_ROWS_PER_SHEET) {
+            startSheet();
+        }
+
+        Row row = sheet.createRow(rowNum++);
+        row.createCell(0).setCellValue(reading.id());
+        row.createCell(1).setCellValue(reading.sessionId());
+        row.createCell(2).setCellValue(reading.deviceId());
+        row.createCell(3).setCellValue(reading.timestamp().format(TIMESTAMP_FORMAT));
+        row.createCell(4).setCellValue(reading.elapsedSeconds());
+        row.createCell(5).setCellValue(reading.temperature());
+        row.createCell(6).setCellValue(reading.humidity());
+        row.createCell(7).setCellValue(reading.light());
+        row.createCell(8).setCellValue(reading.fire());
+        row.createCell(9).setCellValue(reading.s1());
+        row.createCell(10).setCellValue(reading.s2());
+        row.createCell(11).setCellValue(reading.sa());
+    }
+
+    private void startSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? "Sensor Data" : "Sensor Data (" + sheetCount + ")");
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < HEADERS.length; i++) {
+            headerRow.createCell(i).setCellValue(HEADERS[i]);
+        }
+        rowNum = 1;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (sheet == null) {
+            startSheet();
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
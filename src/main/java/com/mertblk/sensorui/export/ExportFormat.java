@@ -0,0 +1,44 @@
+package com.mertblk.sensorui.export;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * File formats readings can be exported to.
+ */
+public enum ExportFormat {
+
+    EXCEL("Excel workbook (.xlsx)", ".xlsx"),
+    CSV("CSV (.csv)", ".csv"),
+    CSV_GZIP("CSV, gzip-compressed (.csv.gz)", ".csv.gz"),
+    NDJSON("Newline-delimited JSON (.ndjson)", ".ndjson");
+
+    private final String label;
+    private final String extension;
+
+    ExportFormat(String label, String extension) {
+        this.label = label;
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Creates or truncates {@code file} and returns a writer for it.
+     */
+    public SensorReadingWriter open(Path file) throws IOException {
+        return switch (this) {
+            case EXCEL -> new ExcelExporter(file.toFile());
+            case CSV -> new CsvReadingWriter(file, false);
+            case CSV_GZIP -> new CsvReadingWriter(file, true);
+            case NDJSON -> new NdjsonReadingWriter(file);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
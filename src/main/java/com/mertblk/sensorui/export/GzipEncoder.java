@@ -0,0 +1,78 @@
+package com.mertblk.sensorui.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip (RFC 1952) member written to a channel from direct buffers. {@link java.util.zip.GZIPOutputStream}
+ * only takes heap arrays, so this drives a raw {@link Deflater} itself and adds the header and the
+ * CRC-32/size trailer around the deflate stream.
+ */
+final class GzipEncoder implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 18;
+    // Magic, CM = deflate, no flags, no mtime, XFL = fastest, OS = unknown.
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 4, (byte) 0xff};
+
+    private final WritableByteChannel channel;
+    // Export speed matters more than the last few percent of size; CSV still shrinks several times.
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer noInput = ByteBuffer.allocate(0);
+
+    GzipEncoder(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        output.put(HEADER);
+    }
+
+    /**
+     * Compresses the remaining bytes of {@code input}, consuming all of them.
+     */
+    void write(ByteBuffer input) throws IOException {
+        crc.update(input.duplicate());
+        deflater.setInput(input);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+        // The deflater keeps reading from the buffer it was given, which the caller is about to refill.
+        deflater.setInput(noInput);
+    }
+
+    void finish() throws IOException {
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate();
+        }
+        if (output.remaining() < 8) {
+            drain();
+        }
+        output.putInt((int) crc.getValue());
+        output.putInt((int) deflater.getBytesRead());
+        drain();
+    }
+
+    @Override
+    public void close() {
+        deflater.end();
+    }
+
+    private void deflate() throws IOException {
+        if (!output.hasRemaining()) {
+            drain();
+        }
+        deflater.deflate(output);
+    }
+
+    private void drain() throws IOException {
+        output.flip();
+        while (output.hasRemaining()) {
+            channel.write(output);
+        }
+        output.clear();
+    }
+}
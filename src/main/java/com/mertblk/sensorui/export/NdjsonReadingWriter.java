@@ -0,0 +1,91 @@
+package com.mertblk.sensorui.export;
+
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * One JSON object per line, with the same fields as the CSV export.
+ */
+class NdjsonReadingWriter extends TextReadingWriter {
+
+    NdjsonReadingWriter(Path file) throws IOException {
+        super(file, false);
+    }
+
+    @Override
+    public void write(SensorReading reading) throws IOException {
+        put("{\"id\":");
+        put(reading.id());
+        put(",\"session_id\":");
+        putString(reading.sessionId());
+        put(",\"device_id\":");
+        putString(reading.deviceId());
+        put(",\"timestamp_ms\":");
+        put(reading.timestampMillis());
+        put(",\"elapsed_seconds\":");
+        putNumber(reading.elapsedSeconds(), ELAPSED_DECIMALS);
+        put(",\"temperature\":");
+        putNumber(reading.temperature(), TEMPERATURE_DECIMALS);
+        put(",\"humidity\":");
+        put(reading.humidity());
+        put(",\"light\":");
+        put(reading.light());
+        put(",\"fire\":");
+        put(reading.fire());
+        put(",\"s1\":");
+        put(reading.s1());
+        put(",\"s2\":");
+        put(reading.s2());
+        put(",\"sa\":");
+        put(reading.sa());
+        put("}\n");
+    }
+
+    /**
+     * JSON has no NaN or infinity.
+     */
+    private void putNumber(double value, int decimals) throws IOException {
+        if (Double.isFinite(value)) {
+            put(value, decimals);
+        } else {
+            put("null");
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            put("null");
+            return;
+        }
+        put('"');
+        put(needsEscape(value) ? escape(value) : value);
+        put('"');
+    }
+
+    private static boolean needsEscape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.mertblk.sensorui.export;
+
+import com.mertblk.sensorui.archive.ArchiveStore;
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.ReadingSource;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Background export of a {@link ReadingSource} to one file in any {@link ExportFormat}. Rows are
+ * streamed from a database cursor or session archive straight into the format's writer, so memory
+ * use does not grow with the session size. The task's value is the number of rows written.
+ */
+public class ReadingExportTask extends Task<Integer> {
+
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private final Callable<ReadingSource> sourceOpener;
+    private final ExportFormat format;
+    private final File file;
+
+    public ReadingExportTask(DatabaseManager database, String whereSql, List<Object> params, ExportFormat format, File file) {
+        this(database.readings(whereSql, params), format, file);
+    }
+
+    public ReadingExportTask(ReadingSource source, ExportFormat format, File file) {
+        this(() -> source, format, file);
+    }
+
+    /**
+     * Exports one session, from its archive if it has one. Finding out which copy to read is left
+     * to the task, since it needs the database.
+     */
+    public ReadingExportTask(ArchiveStore archiveStore, String sessionId, ExportFormat format, File file) {
+        this(() -> archiveStore.sessionReadings(sessionId), format, file);
+    }
+
+    private ReadingExportTask(Callable<ReadingSource> sourceOpener, ExportFormat format, File file) {
+        this.sourceOpener = sourceOpener;
+        this.format = format;
+        this.file = file;
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        updateMessage("Counting rows...");
+        ReadingSource source = sourceOpener.call();
+        int total = source.count();
+        if (total == 0) {
+            return 0;
+        }
+
+        int[] written = {0};
+        try (SensorReadingWriter writer = format.open(file.toPath())) {
+            updateMessage("Exporting " + total + " rows...");
+            source.forEach(reading -> {
+                writer.write(reading);
+                written[0]++;
+                if (written[0] % PROGRESS_INTERVAL == 0) {
+                    updateProgress(written[0], total);
+                }
+                return !isCancelled();
+            });
+
+            if (isCancelled()) {
+                return written[0];
+            }
+            updateMessage("Writing file...");
+            writer.finish();
+        } catch (IOException e) {
+            deletePartialFile();
+            throw e;
+        }
+        updateProgress(total, total);
+        return written[0];
+    }
+
+    @Override
+    protected void cancelled() {
+        deletePartialFile();
+    }
+
+    private void deletePartialFile() {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            System.err.println("Could not delete partial export " + file + ": " + e.getMessage());
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mertblk.sensorui.export;
+
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.io.IOException;
+
+/**
+ * Writes readings to one export file, one row at a time. {@link #finish()} completes the file;
+ * closing without finishing just releases resources and leaves a partial file for the caller to
+ * delete.
+ */
+public interface SensorReadingWriter extends AutoCloseable {
+
+    void write(SensorReading reading) throws IOException;
+
+    void finish() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,200 @@
+package com.mertblk.sensorui.export;
+
+import com.mertblk.sensorui.archive.ArchiveStore;
+import com.mertblk.sensorui.db.ReadingSource;
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background export of several sessions into a directory, one file per session, named after the
+ * session and never shared by two sessions. Sessions are exported in parallel on a fork/join pool; each one is streamed from its
+ * archive or the database like {@link ReadingExportTask} does. The task's value is the total
+ * number of rows written. If any session fails or the task is cancelled, the other jobs stop and
+ * every file the task wrote is deleted again.
+ */
+public class SessionExportTask extends Task<Integer> {
+
+    // The database has four read connections; leave one for the views while an export runs.
+    private static final int PARALLELISM = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors()));
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final long JOB_STOP_TIMEOUT_SECONDS = 30;
+
+    private final ArchiveStore archiveStore;
+    // Null exports every session.
+    private final List<String> sessionIds;
+    private final ExportFormat format;
+    private final File directory;
+
+    private final Queue<Path> writtenFiles = new ConcurrentLinkedQueue<>();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicInteger sessionsDone = new AtomicInteger();
+    // Set once the outcome is decided, so jobs still running or queued stop early.
+    private volatile boolean stopped = false;
+    private int sessionCount;
+
+    public SessionExportTask(ArchiveStore archiveStore, List<String> sessionIds, ExportFormat format, File directory) {
+        this.archiveStore = archiveStore;
+        this.sessionIds = List.copyOf(sessionIds);
+        this.format = format;
+        this.directory = directory;
+    }
+
+    /**
+     * Exports every session; they are listed when the task runs rather than on the calling thread.
+     */
+    public SessionExportTask(ArchiveStore archiveStore, ExportFormat format, File directory) {
+        this.archiveStore = archiveStore;
+        this.sessionIds = null;
+        this.format = format;
+        this.directory = directory;
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        updateMessage("Counting rows...");
+        List<String> requested = sessionIds != null ? sessionIds : archiveStore.getSessionIds();
+        // Sessions without rows get no file.
+        List<String> exported = new ArrayList<>(requested.size());
+        List<ReadingSource> sources = new ArrayList<>(requested.size());
+        long total = 0;
+        for (String sessionId : requested) {
+            ReadingSource source = archiveStore.sessionReadings(sessionId);
+            int count = source.count();
+            if (count > 0) {
+                exported.add(sessionId);
+                sources.add(source);
+                total += count;
+            }
+            if (isCancelled()) {
+                return 0;
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+        sessionCount = exported.size();
+
+        Files.createDirectories(directory.toPath());
+        updateMessage("Exporting " + sessionCount + " sessions...");
+        long rowTotal = total;
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        boolean completed = false;
+        try {
+            List<String> fileNames = fileNames(exported);
+            List<ForkJoinTask<Integer>> jobs = new ArrayList<>(sessionCount);
+            for (int i = 0; i < sessionCount; i++) {
+                Path file = directory.toPath().resolve(fileNames.get(i));
+                ReadingSource source = sources.get(i);
+                jobs.add(pool.submit(() -> exportSession(file, source, rowTotal)));
+            }
+            int written = 0;
+            for (ForkJoinTask<Integer> job : jobs) {
+                written += job.get();
+            }
+            completed = !isCancelled();
+            updateProgress(rowTotal, rowTotal);
+            return written;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (InterruptedException e) {
+            // Interrupted by cancel(); the result is discarded anyway.
+            return 0;
+        } finally {
+            stopped = true;
+            pool.shutdown();
+            if (!completed) {
+                // Files are only deleted once no job has them open any more.
+                awaitJobs(pool);
+                deleteWrittenFiles();
+            }
+        }
+    }
+
+    private static void awaitJobs(ForkJoinPool pool) {
+        try {
+            if (!pool.awaitTermination(JOB_STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Export jobs did not stop in time; partial files may remain.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int exportSession(Path file, ReadingSource source, long rowTotal) throws Exception {
+        if (stopped || isCancelled()) {
+            return 0;
+        }
+        writtenFiles.add(file);
+        int[] written = {0};
+        try (SensorReadingWriter writer = format.open(file)) {
+            source.forEach(reading -> {
+                writer.write(reading);
+                if (++written[0] % PROGRESS_INTERVAL == 0) {
+                    updateProgress(rowsWritten.addAndGet(PROGRESS_INTERVAL), rowTotal);
+                }
+                return !stopped && !isCancelled();
+            });
+            if (stopped || isCancelled()) {
+                return written[0];
+            }
+            writer.finish();
+        }
+        rowsWritten.addAndGet(written[0] % PROGRESS_INTERVAL);
+        updateMessage("Exported " + sessionsDone.incrementAndGet() + " of " + sessionCount + " sessions...");
+        return written[0];
+    }
+
+    /**
+     * One distinct file name per session, so no two jobs ever write the same file. Ids that are safe
+     * file names are used as they are. Other ids get anything unsafe replaced plus a hash of the
+     * id, as archive files do, because "run 1" and "run_1" would otherwise collide. Any clash left,
+     * compared ignoring case for case-insensitive file systems, is numbered.
+     */
+    private List<String> fileNames(List<String> sessionIds) {
+        Set<String> used = new HashSet<>();
+        List<String> names = new ArrayList<>(sessionIds.size());
+        for (String sessionId : sessionIds) {
+            String base = sessionId.replaceAll("[^A-Za-z0-9._-]", "_");
+            if (!base.equals(sessionId) || base.isEmpty()) {
+                base += "-" + Integer.toHexString(sessionId.hashCode());
+            }
+            String name = base;
+            for (int n = 2; !used.add(name.toLowerCase(Locale.ROOT)); n++) {
+                name = base + "-" + n;
+            }
+            names.add(name + format.getExtension());
+        }
+        return names;
+    }
+
+    private void deleteWrittenFiles() {
+        for (Path file : writtenFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Could not delete partial export " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+}
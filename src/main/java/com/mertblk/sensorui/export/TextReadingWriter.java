@@ -0,0 +1,173 @@
+package com.mertblk.sensorui.export;
+
+import com.mertblk.sensorui.model.SensorReading;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base of the line-oriented text formats. Rows are encoded straight into a large direct buffer,
+ * without building a String per row, and the buffer is handed to the {@link FileChannel} (through
+ * a {@link GzipEncoder} if compressing) only when it fills up.
+ */
+abstract class TextReadingWriter implements SensorReadingWriter {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Longest encoding of one UTF-16 char in UTF-8 (surrogate pairs take 4 bytes for 2 chars).
+    private static final int MAX_BYTES_PER_CHAR = 3;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    // Keeps the integer and fraction digits, plus the point, within the digits array.
+    private static final double MAX_FIXED_POINT_UNITS = 1e18;
+
+    // Temperatures are stored and sent in 1/100 °C; elapsed times are archived in microseconds.
+    static final int TEMPERATURE_DECIMALS = 2;
+    static final int ELAPSED_DECIMALS = 6;
+
+    private final FileChannel channel;
+    private final GzipEncoder gzip;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    TextReadingWriter(Path file, boolean compress) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.gzip = compress ? new GzipEncoder(channel) : null;
+    }
+
+    @Override
+    public abstract void write(SensorReading reading) throws IOException;
+
+    @Override
+    public void finish() throws IOException {
+        drain();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (gzip != null) {
+                gzip.close();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    final void put(char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) c);
+    }
+
+    /**
+     * Appends {@code value} as UTF-8.
+     */
+    final void put(String value) throws IOException {
+        int length = value.length();
+        if (buffer.remaining() < length * MAX_BYTES_PER_CHAR) {
+            drain();
+        }
+        if (length * MAX_BYTES_PER_CHAR > buffer.remaining()) {
+            putBytes(value.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                buffer.put(value.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer.put((byte) c);
+        }
+    }
+
+    final void put(long value) throws IOException {
+        if (buffer.remaining() < digits.length) {
+            drain();
+        }
+        if (value == Long.MIN_VALUE) {
+            put(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    /**
+     * Appends {@code value} in fixed-point notation, rounded to {@code decimals} places (at least
+     * one) with trailing zeros dropped down to a single decimal, so 21.3f is written as "21.3".
+     * NaN, the infinities and values too large for that are written with {@link Double#toString}.
+     */
+    final void put(double value, int decimals) throws IOException {
+        double scaled = value * POWERS_OF_TEN[decimals];
+        if (!(Math.abs(scaled) < MAX_FIXED_POINT_UNITS)) {
+            put(Double.toString(value));
+            return;
+        }
+        long units = Math.round(scaled);
+        if (buffer.remaining() < digits.length + 1) {
+            drain();
+        }
+        if (units < 0) {
+            buffer.put((byte) '-');
+            units = -units;
+        }
+        int fractionDigits = decimals;
+        while (fractionDigits > 1 && units % 10 == 0) {
+            units /= 10;
+            fractionDigits--;
+        }
+        int start = digits.length;
+        for (int i = 0; i < fractionDigits; i++) {
+            digits[--start] = (byte) ('0' + units % 10);
+            units /= 10;
+        }
+        digits[--start] = '.';
+        do {
+            digits[--start] = (byte) ('0' + units % 10);
+            units /= 10;
+        } while (units != 0);
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        if (gzip != null) {
+            gzip.write(buffer);
+        } else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+}
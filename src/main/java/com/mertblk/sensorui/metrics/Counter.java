@@ -0,0 +1,25 @@
+package com.mertblk.sensorui.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic event count. Backed by a {@link LongAdder}, so concurrent reader threads do not
+ * contend on a single cache line and incrementing never allocates.
+ */
+public final class Counter implements CounterMXBean {
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long n) {
+        count.add(n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
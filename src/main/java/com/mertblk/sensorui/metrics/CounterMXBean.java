@@ -0,0 +1,9 @@
+package com.mertblk.sensorui.metrics;
+
+/**
+ * JMX view of a {@link Counter}.
+ */
+public interface CounterMXBean {
+
+    long getCount();
+}
@@ -0,0 +1,30 @@
+package com.mertblk.sensorui.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Point-in-time value. Either pulled from a {@link #bind bound} supplier, such as a queue's size,
+ * or pushed with {@link #set} by the code that measures it.
+ */
+public final class Gauge implements GaugeMXBean {
+
+    private volatile LongSupplier source;
+    private volatile long value;
+
+    /**
+     * Reads the value from {@code source} from now on. A later call replaces the earlier source.
+     */
+    public void bind(LongSupplier source) {
+        this.source = source;
+    }
+
+    public void set(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public long getValue() {
+        LongSupplier supplier = source;
+        return supplier != null ? supplier.getAsLong() : value;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mertblk.sensorui.metrics;
+
+/**
+ * JMX view of a {@link Gauge}.
+ */
+public interface GaugeMXBean {
+
+    long getValue();
+}
@@ -0,0 +1,47 @@
+package com.mertblk.sensorui.metrics;
+
+/**
+ * The metrics of the acquisition pipeline, from the sensor source to the database and the screen.
+ * The fields are recorded by the reader threads, the write-behind stage and the FX thread;
+ * everything is also published over JMX under {@link #JMX_DOMAIN} once {@link #registerMBeans()} is called.
+ */
+public final class IngestMetrics {
+
+    public static final String JMX_DOMAIN = "com.mertblk.sensorui";
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    /** Frames received from all devices, well-formed or not. */
+    public static final Counter LINES_READ = REGISTRY.counter("ingest.lines.read");
+    public static final Counter PARSE_FAILURES = REGISTRY.counter("ingest.parse.failures");
+    /** Frames missing from sequence-numbered (binary) streams. */
+    public static final Counter FRAMES_LOST = REGISTRY.counter("ingest.frames.lost");
+    public static final Counter ROWS_PERSISTED = REGISTRY.counter("db.rows.persisted");
+    /** Rows rejected by a full write queue or lost with a failed batch. */
+    public static final Counter ROWS_DROPPED = REGISTRY.counter("db.rows.dropped");
+    public static final Counter ALARMS_RAISED = REGISTRY.counter("alarm.raised");
+
+    /** From the read that delivered a frame's last byte to the frame being decoded. */
+    public static final LatencyHistogram SERIAL_TO_PARSE = REGISTRY.histogram("ingest.serial-to-parse");
+    /** From a reading being queued for persistence to the commit of its batch. */
+    public static final LatencyHistogram PARSE_TO_COMMIT = REGISTRY.histogram("db.parse-to-commit");
+    public static final LatencyHistogram COMMIT = REGISTRY.histogram("db.commit");
+    /** Read queries, excluding cursors that stream rows to a visitor such as an export. */
+    public static final LatencyHistogram QUERY = REGISTRY.histogram("db.query");
+    /** Running every alarm rule against one reading, on the reader thread. */
+    public static final LatencyHistogram ALARM_EVALUATION = REGISTRY.histogram("alarm.evaluation");
+
+    public static final Gauge WRITE_QUEUE_DEPTH = REGISTRY.gauge("db.write-queue.depth");
+    /** Worst delay of an FX pulse beyond its frame budget during the last second, in microseconds. */
+    public static final Gauge FX_PULSE_LAG_MICROS = REGISTRY.gauge("fx.pulse.lag.micros");
+
+    private IngestMetrics() {
+    }
+
+    public static void registerMBeans() {
+        REGISTRY.registerMBeans(JMX_DOMAIN);
+    }
+
+    public static void unregisterMBeans() {
+        REGISTRY.unregisterMBeans(JMX_DOMAIN);
+    }
+}
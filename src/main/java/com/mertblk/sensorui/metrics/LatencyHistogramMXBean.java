@@ -0,0 +1,19 @@
+package com.mertblk.sensorui.metrics;
+
+/**
+ * JMX view of a {@link LatencyHistogram}. Values are in milliseconds since the application started.
+ */
+public interface LatencyHistogramMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double get50thPercentileMillis();
+
+    double get99thPercentileMillis();
+
+    double get999thPercentileMillis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,80 @@
+package com.mertblk.sensorui.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named counters, gauges and latency histograms. Metrics are created once, usually into static
+ * fields, and shared by name; looking one up is not meant for the hot path.
+ */
+public final class MetricsRegistry {
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public Gauge gauge(String name) {
+        return gauges.computeIfAbsent(name, n -> new Gauge());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers every metric with the platform MBean server as
+     * {@code domain:type=Counter|Gauge|LatencyHistogram,name=...}, so they show up in JConsole or
+     * VisualVM. Metrics that are already registered are skipped.
+     */
+    public void registerMBeans(String domain) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        register(server, domain, "Counter", counters);
+        register(server, domain, "Gauge", gauges);
+        register(server, domain, "LatencyHistogram", histograms);
+    }
+
+    private static void register(MBeanServer server, String domain, String type, Map<String, ?> metrics) {
+        for (Map.Entry<String, ?> entry : metrics.entrySet()) {
+            try {
+                server.registerMBean(entry.getValue(), objectName(domain, type, entry.getKey()));
+            } catch (InstanceAlreadyExistsException e) {
+                // Registered by an earlier call.
+            } catch (JMException e) {
+                System.err.println("Error registering metric " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void unregisterMBeans(String domain) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        unregister(server, domain, "Counter", counters.keySet());
+        unregister(server, domain, "Gauge", gauges.keySet());
+        unregister(server, domain, "LatencyHistogram", histograms.keySet());
+    }
+
+    private static void unregister(MBeanServer server, String domain, String type, Iterable<String> names) {
+        for (String name : names) {
+            try {
+                ObjectName objectName = objectName(domain, type, name);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                System.err.println("Error unregistering metric " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static ObjectName objectName(String domain, String type, String name) throws JMException {
+        return new ObjectName(domain + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
@@ -0,0 +1,78 @@
+package com.mertblk.sensorui.mock;
+
+import com.mertblk.sensorui.model.SensorData;
+import com.mertblk.sensorui.serial.BinaryFrame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Produces one device's stream of random readings, encoded as CSV lines or binary frames, with the
+ * faults requested by the {@link LoadProfile} mixed in.
+ */
+class FrameGenerator {
+
+    private static final int MAX_GARBAGE_BYTES = 16;
+
+    private final LoadProfile profile;
+    private final Random random;
+    private final SensorData data = new SensorData();
+    private final byte[] buffer = new byte[MAX_GARBAGE_BYTES + 64];
+    private int sequence = 0;
+
+    FrameGenerator(LoadProfile profile, long seed) {
+        this.profile = profile;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Encodes the next frame into {@link #buffer()} and returns its length, or zero if the frame
+     * was dropped.
+     */
+    int next() {
+        data.setTemperature(20 + random.nextFloat() * 10);
+        data.setFire(random.nextInt(2));
+        data.setHumidity(random.nextInt(101));
+        data.setLight(random.nextInt(2));
+        data.setS1(random.nextInt(2));
+        data.setS2(random.nextInt(2));
+        data.setSa(random.nextInt(2));
+        int frameSequence = sequence++;
+
+        if (random.nextDouble() < profile.dropRate()) {
+            return 0;
+        }
+
+        int length = 0;
+        if (random.nextDouble() < profile.garbageRate()) {
+            length = 1 + random.nextInt(MAX_GARBAGE_BYTES);
+            for (int i = 0; i < length; i++) {
+                buffer[i] = (byte) random.nextInt(256);
+            }
+        }
+
+        int frameStart = length;
+        if (profile.binary()) {
+            BinaryFrame.encode(frameSequence, data, buffer, length);
+            length += BinaryFrame.FRAME_LENGTH;
+        } else {
+            byte[] line = String.format(Locale.US, "DUMMY,%.1f,%d,%.1f,%d,%d,%d,%d\n",
+                    data.getTemperature(), data.getFire(), (float) data.getHumidity(),
+                    data.getLight(), data.getS1(), data.getS2(), data.getSa()).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(line, 0, buffer, length, line.length);
+            length += line.length;
+        }
+
+        if (random.nextDouble() < profile.corruptRate()) {
+            // Never touch the CSV terminator, so a corrupted line does not swallow the next one.
+            int span = length - frameStart - (profile.binary() ? 0 : 1);
+            buffer[frameStart + random.nextInt(span)] ^= (byte) (1 << random.nextInt(8));
+        }
+        return length;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+}
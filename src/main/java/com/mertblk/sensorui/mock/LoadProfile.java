@@ -0,0 +1,15 @@
+package com.mertblk.sensorui.mock;
+
+/**
+ * Settings shared by every simulated device.
+ *
+ * @param rateHz         frames per second per device; zero or less sends as fast as the transport accepts
+ * @param jitterMillis   uniform random deviation applied to every send time
+ * @param binary         {@code true} for binary frames, {@code false} for CSV lines
+ * @param corruptRate    probability that a frame has one bit flipped
+ * @param dropRate       probability that a frame is skipped (its sequence number is still used up)
+ * @param garbageRate    probability that random noise bytes precede a frame
+ */
+record LoadProfile(double rateHz, double jitterMillis, boolean binary,
+                   double corruptRate, double dropRate, double garbageRate) {
+}
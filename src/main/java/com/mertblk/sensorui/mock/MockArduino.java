@@ -1,57 +1,206 @@
 package com.mertblk.sensorui.mock;
 
 import com.fazecast.jSerialComm.SerialPort;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Locale;
-import java.util.Random;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Load generator that simulates one or more sensor boards over any transport the application can
+ * read from:
+ * <ul>
+ *     <li>{@code serial}: one device per port in {@code --port COM3,COM4}</li>
+ *     <li>{@code tcp}: device {@code i} listens on localhost port {@code --tcp-port + i}; connect with {@code tcp:localhost:PORT}</li>
+ *     <li>{@code file}: writes {@code --count} frames per device to a capture for {@code file:PATH} replay</li>
+ * </ul>
+ * Usage: {@code MockArduino [--transport serial|tcp|file] [--port COM3] [--baud 9600] [--tcp-port 5000]
+ * [--file capture.bin] [--count N] [--devices 1] [--rate 0.5] [--jitter 0] [--binary]
+ * [--corrupt 0] [--drop 0] [--garbage 0] [--seed 1]}. Rates are per device in frames per second, zero meaning
+ * as fast as possible; fault options are probabilities per frame.
+ */
 public class MockArduino {
 
     private static final String MOCK_PORT_NAME = "COM3";
     private static final int BAUD_RATE = 9600;
+    private static final int TCP_PORT = 5000;
+    private static final double RATE_HZ = 0.5;
+    private static final long FILE_FRAME_COUNT = 10_000;
 
     public static void main(String[] args) {
-        SerialPort mockPort = SerialPort.getCommPort(MOCK_PORT_NAME);
-        mockPort.setBaudRate(BAUD_RATE);
-
-        if (!mockPort.openPort()) {
-            System.err.println("Error: " + MOCK_PORT_NAME + "cannot opened");
+        String transport = "serial";
+        String portNames = MOCK_PORT_NAME;
+        int baudRate = BAUD_RATE;
+        int tcpPort = TCP_PORT;
+        String file = "capture.bin";
+        long count = -1;
+        int deviceCount = 1;
+        double rate = RATE_HZ;
+        double jitter = 0;
+        boolean binary = false;
+        double corrupt = 0;
+        double drop = 0;
+        double garbage = 0;
+        long seed = 1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--transport" -> transport = args[++i];
+                    case "--port" -> portNames = args[++i];
+                    case "--baud" -> baudRate = Integer.parseInt(args[++i]);
+                    case "--tcp-port" -> tcpPort = Integer.parseInt(args[++i]);
+                    case "--file" -> file = args[++i];
+                    case "--count" -> count = Long.parseLong(args[++i]);
+                    case "--devices" -> deviceCount = Integer.parseInt(args[++i]);
+                    case "--rate" -> rate = Double.parseDouble(args[++i]);
+                    case "--jitter" -> jitter = Double.parseDouble(args[++i]);
+                    case "--binary" -> binary = true;
+                    case "--corrupt" -> corrupt = Double.parseDouble(args[++i]);
+                    case "--drop" -> drop = Double.parseDouble(args[++i]);
+                    case "--garbage" -> garbage = Double.parseDouble(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error parsing arguments: " + e.getMessage());
             return;
         }
 
-        System.out.println("Mock Arduino was started. " + "Sending data to " + MOCK_PORT_NAME);
+        long frameLimit = count;
+        int serialBaudRate = baudRate;
+        LongAdder sentFrames = new LongAdder();
+        List<Thread> devices = new ArrayList<>();
+        switch (transport) {
+            case "serial" -> {
+                LoadProfile profile = new LoadProfile(rate, jitter, binary, corrupt, drop, garbage);
+                String[] ports = portNames.split(",");
+                for (int i = 0; i < ports.length; i++) {
+                    String portName = ports[i];
+                    MockDevice device = new MockDevice(profile, seed + i, sentFrames);
+                    devices.add(startDevice(portName, () -> runSerial(portName, serialBaudRate, device, frameLimit)));
+                }
+            }
+            case "tcp" -> {
+                LoadProfile profile = new LoadProfile(rate, jitter, binary, corrupt, drop, garbage);
+                for (int i = 0; i < deviceCount; i++) {
+                    int port = tcpPort + i;
+                    MockDevice device = new MockDevice(profile, seed + i, sentFrames);
+                    devices.add(startDevice("tcp:" + port, () -> runTcp(port, device, frameLimit)));
+                }
+            }
+            case "file" -> {
+                // Captures are paced by the replay source, so they are written as fast as possible.
+                LoadProfile profile = new LoadProfile(0, 0, binary, corrupt, drop, garbage);
+                long frames = count < 0 ? FILE_FRAME_COUNT : count;
+                for (int i = 0; i < deviceCount; i++) {
+                    Path path = deviceCount == 1 ? Path.of(file) : Path.of(file + "." + i);
+                    MockDevice device = new MockDevice(profile, seed + i, sentFrames);
+                    devices.add(startDevice(path.toString(), () -> runFile(path, device, frames)));
+                }
+            }
+            default -> {
+                System.err.println("Unknown transport: " + transport);
+                return;
+            }
+        }
+
+        System.out.println("Mock Arduino was started: " + devices.size() + " " + transport + " device(s) sending "
+                + (binary ? "binary" : "text") + " frames");
+        startReporter(sentFrames);
+        for (Thread device : devices) {
+            try {
+                device.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        System.out.println("Frames sent: " + sentFrames.sum());
+    }
+
+    private interface DeviceTask {
+        void run() throws Exception;
+    }
+
+    private static Thread startDevice(String name, DeviceTask task) {
+        return Thread.ofPlatform().name("mock-" + name).start(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                System.err.println("There is an error on " + name + ": " + e.getMessage());
+            }
+        });
+    }
 
+    private static void runSerial(String portName, int baudRate, MockDevice device, long count) throws Exception {
+        SerialPort mockPort = SerialPort.getCommPort(portName);
+        mockPort.setBaudRate(baudRate);
+        if (!mockPort.openPort()) {
+            throw new IOException(portName + " cannot be opened");
+        }
+        System.out.println("Sending data to " + portName + " at " + baudRate + " baud");
         try (OutputStream outputStream = mockPort.getOutputStream()) {
             Thread.sleep(2000);
-
-            Random random = new Random();
-            while (true) {
-                String dummy = "DUMMY";
-                float temp = 20 + random.nextFloat() * 10;
-                int fire = random.nextInt(2);
-                float hum = random.nextFloat() * 100;
-                int light = random.nextInt(2);
-                int s1 = random.nextInt(2);
-                int s2 = random.nextInt(2);
-                int sa = random.nextInt(2);
-
-                String dataLine = String.format(
-                        Locale.US,
-                        "%s,%.1f,%d,%.1f,%d,%d,%d,%d\n",
-                        dummy, temp, fire, hum, light, s1, s2, sa
-                );
-
-                outputStream.write(dataLine.getBytes());
-                outputStream.flush();
-
-                System.out.print("Data was sent: " + dataLine);
-                Thread.sleep(2000);
-            }
-        } catch (Exception e) {
-            System.err.println("There is an error: " + e.getMessage());
+            device.stream(outputStream, count);
         } finally {
             mockPort.closePort();
-            System.out.println("Port closed.");
+            System.out.println("Port closed: " + portName);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Serves one client at a time; when a client disconnects the next one gets a fresh stream.
+     */
+    private static void runTcp(int port, MockDevice device, long count) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening on tcp:localhost:" + port);
+            while (true) {
+                try (Socket client = server.accept();
+                     OutputStream outputStream = new BufferedOutputStream(client.getOutputStream(), 8192)) {
+                    client.setTcpNoDelay(true);
+                    System.out.println("Client connected on port " + port);
+                    device.stream(outputStream, count);
+                    if (count >= 0) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    System.out.println("Client disconnected from port " + port + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void runFile(Path path, MockDevice device, long count) throws IOException {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024)) {
+            device.stream(outputStream, count);
+        }
+        System.out.println("Wrote " + count + " frames to " + path.toAbsolutePath());
+    }
+
+    private static void startReporter(LongAdder sentFrames) {
+        Thread reporter = new Thread(() -> {
+            long previous = 0;
+            while (true) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long total = sentFrames.sum();
+                System.out.println((total - previous) + " frames/s (" + total + " total)");
+                previous = total;
+            }
+        }, "mock-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+}
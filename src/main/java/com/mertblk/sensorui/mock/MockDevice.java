@@ -0,0 +1,59 @@
+package com.mertblk.sensorui.mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends frames from a {@link FrameGenerator} to an output stream at the profile's rate. Send times
+ * are scheduled from a fixed start so sleeping overhead does not accumulate into drift, and the
+ * stream is only flushed before sleeping so high rates are not bound by one write per frame.
+ */
+class MockDevice {
+
+    private final LoadProfile profile;
+    private final FrameGenerator generator;
+    private final Random jitterRandom;
+    private final LongAdder sentFrames;
+
+    MockDevice(LoadProfile profile, long seed, LongAdder sentFrames) {
+        this.profile = profile;
+        this.generator = new FrameGenerator(profile, seed);
+        this.jitterRandom = new Random(~seed);
+        this.sentFrames = sentFrames;
+    }
+
+    /**
+     * Streams frames until {@code maxFrames} have been generated (negative for no limit) or the
+     * stream fails.
+     */
+    void stream(OutputStream out, long maxFrames) throws IOException {
+        long periodNanos = profile.rateHz() > 0 ? (long) (1_000_000_000L / profile.rateHz()) : 0;
+        long jitterNanos = (long) (profile.jitterMillis() * 1_000_000);
+        long nextSend = System.nanoTime();
+
+        for (long frame = 0; maxFrames < 0 || frame < maxFrames; frame++) {
+            if (periodNanos > 0) {
+                nextSend += periodNanos;
+                long sendAt = nextSend;
+                if (jitterNanos > 0) {
+                    sendAt += (long) ((jitterRandom.nextDouble() * 2 - 1) * jitterNanos);
+                }
+                long wait = sendAt - System.nanoTime();
+                if (wait > 0) {
+                    out.flush();
+                    LockSupport.parkNanos(wait);
+                }
+            }
+
+            int length = generator.next();
+            if (length > 0) {
+                out.write(generator.buffer(), 0, length);
+                sentFrames.increment();
+            }
+        }
+        out.flush();
+    }
+}
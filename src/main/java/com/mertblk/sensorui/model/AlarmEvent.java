@@ -0,0 +1,10 @@
+package com.mertblk.sensorui.model;
+
+/**
+ * An alarm being raised or cleared for one device. {@code values} lists the readings of the
+ * channels the rule looks at, as they were at that moment; {@code sessionId} is {@code null} when
+ * nothing was being recorded.
+ */
+public record AlarmEvent(long timestampMillis, String deviceId, String sessionId, String rule, boolean raised,
+                         String values) {
+}
@@ -0,0 +1,56 @@
+package com.mertblk.sensorui.model;
+
+/**
+ * The measured quantities of a {@link SensorData} frame, with primitive access so per-channel
+ * code (history, charts) can loop over channels instead of repeating itself per getter.
+ */
+public enum SensorChannel {
+
+    TEMPERATURE("Temperature", "temperature", false),
+    HUMIDITY("Humidity", "humidity", false),
+    LIGHT("Light Level", "light", true),
+    FIRE("Fire Alarm", "fire", true),
+    SOUND_1("Sound 1", "s1", true),
+    SOUND_2("Sound 2", "s2", true),
+    SOUND_ALARM("Sound Alarm", "sa", true);
+
+    private final String title;
+    private final String column;
+    private final boolean binary;
+
+    SensorChannel(String title, String column, boolean binary) {
+        this.title = title;
+        this.column = column;
+        this.binary = binary;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Column of {@code sensor_readings} holding this channel, also the prefix of its rollup columns.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Whether the channel only ever reports 0 or 1.
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public float read(SensorData data) {
+        return switch (this) {
+            case TEMPERATURE -> data.getTemperature();
+            case HUMIDITY -> data.getHumidity();
+            case LIGHT -> data.getLight();
+            case FIRE -> data.getFire();
+            case SOUND_1 -> data.getS1();
+            case SOUND_2 -> data.getS2();
+            case SOUND_ALARM -> data.getSa();
+        };
+    }
+}
@@ -26,4 +26,20 @@ public class SensorData {
     public void setS1(int s1) { this.s1 = s1; }
     public void setS2(int s2) { this.s2 = s2; }
     public void setSa(int sa) { this.sa = sa; }
+
+    public void copyFrom(SensorData other) {
+        this.temperature = other.temperature;
+        this.humidity = other.humidity;
+        this.light = other.light;
+        this.fire = other.fire;
+        this.s1 = other.s1;
+        this.s2 = other.s2;
+        this.sa = other.sa;
+    }
+
+    public SensorData copy() {
+        SensorData copy = new SensorData();
+        copy.copyFrom(this);
+        return copy;
+    }
 }
@@ -1,71 +1,128 @@
 package com.mertblk.sensorui.model;
 
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyFloatProperty;
+import javafx.beans.property.ReadOnlyFloatWrapper;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.value.ObservableNumberValue;
+
+/**
+ * Latest values of the device shown on the dashboard, one primitive property per channel. Turning
+ * them into text is up to the view. A channel's property is only set when the new reading differs
+ * from the value it holds by more than that channel's epsilon, so noise below the display
+ * resolution does not invalidate anything.
+ */
 public class SensorDataModel {
 
-    private final StringProperty temperature = new SimpleStringProperty("Temp: N/A");
-    private final StringProperty humidity = new SimpleStringProperty("Humidity: N/A");
-    private final StringProperty light = new SimpleStringProperty("Light: N/A");
-    private final StringProperty fireAlarm = new SimpleStringProperty("Fire Alarm: OFF");
-    private final StringProperty sound1 = new SimpleStringProperty("Sound 1: N/A");
-    private final StringProperty sound2 = new SimpleStringProperty("Sound 2: N/A");
-    private final StringProperty soundAlarm = new SimpleStringProperty("Sound Alarm: OFF");
+    /** Half the 0.1 °C the dashboard shows. */
+    public static final float DEFAULT_TEMPERATURE_EPSILON = 0.05f;
 
-    public StringProperty temperatureProperty() {
-        return temperature;
-    }
+    private final ReadOnlyFloatWrapper temperature = new ReadOnlyFloatWrapper();
+    private final ReadOnlyIntegerWrapper humidity = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper light = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper fire = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper sound1 = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper sound2 = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyIntegerWrapper soundAlarm = new ReadOnlyIntegerWrapper();
+    private final ReadOnlyBooleanWrapper available = new ReadOnlyBooleanWrapper(false);
+
+    // Compared against instead of the properties, whose getters would revalidate them.
+    private final float[] values = new float[SensorChannel.values().length];
+    private final float[] epsilons = new float[SensorChannel.values().length];
 
-    public StringProperty humidityProperty() {
-        return humidity;
+    public SensorDataModel() {
+        epsilons[SensorChannel.TEMPERATURE.ordinal()] = DEFAULT_TEMPERATURE_EPSILON;
     }
 
-    public StringProperty lightProperty() {
-        return light;
+    /**
+     * Applies a reading. Must be called on the FX thread.
+     *
+     * @return whether any property changed
+     */
+    public boolean update(SensorData data) {
+        boolean first = !available.get();
+        boolean changed = first;
+        available.set(true);
+        for (SensorChannel channel : SensorChannel.values()) {
+            float value = channel.read(data);
+            int index = channel.ordinal();
+            if (first || Math.abs(value - values[index]) > epsilons[index]) {
+                values[index] = value;
+                set(channel, value);
+                changed = true;
+            }
+        }
+        return changed;
     }
 
-    public StringProperty fireAlarmProperty() {
-        return fireAlarm;
+    /**
+     * Smallest change of {@code channel} that is passed on to its property; 0 passes every change.
+     */
+    public void setEpsilon(SensorChannel channel, float epsilon) {
+        epsilons[channel.ordinal()] = Math.max(0, epsilon);
     }
 
-    public StringProperty sound1Property() {
-        return sound1;
+    private void set(SensorChannel channel, float value) {
+        switch (channel) {
+            case TEMPERATURE -> temperature.set(value);
+            case HUMIDITY -> humidity.set((int) value);
+            case LIGHT -> light.set((int) value);
+            case FIRE -> fire.set((int) value);
+            case SOUND_1 -> sound1.set((int) value);
+            case SOUND_2 -> sound2.set((int) value);
+            case SOUND_ALARM -> soundAlarm.set((int) value);
+        }
     }
 
-    public StringProperty sound2Property() {
-        return sound2;
+    /**
+     * The property of {@code channel}, for code that handles every channel alike.
+     */
+    public ObservableNumberValue valueProperty(SensorChannel channel) {
+        return switch (channel) {
+            case TEMPERATURE -> temperatureProperty();
+            case HUMIDITY -> humidityProperty();
+            case LIGHT -> lightProperty();
+            case FIRE -> fireAlarmProperty();
+            case SOUND_1 -> sound1Property();
+            case SOUND_2 -> sound2Property();
+            case SOUND_ALARM -> soundAlarmProperty();
+        };
     }
 
-    public StringProperty soundAlarmProperty() {
-        return soundAlarm;
+    /**
+     * False until the first reading arrives.
+     */
+    public ReadOnlyBooleanProperty availableProperty() {
+        return available.getReadOnlyProperty();
     }
 
-    public void setTemperature(String temperature) {
-        this.temperature.set("Temp: " + temperature);
+    public ReadOnlyFloatProperty temperatureProperty() {
+        return temperature.getReadOnlyProperty();
     }
 
-    public void setHumidity(String humidity) {
-        this.humidity.set("Humidity: " + humidity);
+    public ReadOnlyIntegerProperty humidityProperty() {
+        return humidity.getReadOnlyProperty();
     }
 
-    public void setLight(String light) {
-        this.light.set("Light: " + light);
+    public ReadOnlyIntegerProperty lightProperty() {
+        return light.getReadOnlyProperty();
     }
 
-    public void setFireAlarm(String fireAlarm) {
-        this.fireAlarm.set("Fire Alarm: " + fireAlarm);
+    public ReadOnlyIntegerProperty fireAlarmProperty() {
+        return fire.getReadOnlyProperty();
     }
 
-    public void setSound1(String sound1) {
-        this.sound1.set("Sound 1: " + sound1);
+    public ReadOnlyIntegerProperty sound1Property() {
+        return sound1.getReadOnlyProperty();
     }
 
-    public void setSound2(String sound2) {
-        this.sound2.set("Sound 2: " + sound2);
+    public ReadOnlyIntegerProperty sound2Property() {
+        return sound2.getReadOnlyProperty();
     }
 
-    public void setSoundAlarm(String soundAlarm) {
-        this.soundAlarm.set("Sound Alarm: " + soundAlarm);
+    public ReadOnlyIntegerProperty soundAlarmProperty() {
+        return soundAlarm.getReadOnlyProperty();
     }
 }
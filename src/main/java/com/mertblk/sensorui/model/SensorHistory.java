@@ -0,0 +1,166 @@
+package com.mertblk.sensorui.model;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of the most recent readings of one device, one primitive array per
+ * {@link SensorChannel}. Every {@link #BLOCK_SIZE} samples also get a precomputed min/max, so
+ * {@link #decimate} can summarize hours of data into one value range per pixel column while
+ * touching only the samples at the column edges.
+ * <p>
+ * There is exactly one writer (the device's reader thread) and any number of readers. The writer
+ * publishes each sample through the volatile {@link #size()}; readers stay away from the oldest
+ * {@code capacity / 8} samples, which are the ones the writer may be overwriting meanwhile.
+ */
+public class SensorHistory {
+
+    public static final int DEFAULT_CAPACITY = 1 << 17;
+    static final int BLOCK_SIZE = 64;
+
+    private static final SensorChannel[] CHANNELS = SensorChannel.values();
+
+    private final int mask;
+    private final int blockMask;
+    private final long safetyMargin;
+    private final long[] times;
+    private final float[][] values;
+    private final float[][] blockMin;
+    private final float[][] blockMax;
+
+    private volatile long size = 0;
+
+    /**
+     * @param capacity number of samples kept, a power of two of at least {@code 8 * BLOCK_SIZE}
+     */
+    public SensorHistory(int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < 8 * BLOCK_SIZE) {
+            throw new IllegalArgumentException("Capacity must be a power of two >= " + 8 * BLOCK_SIZE + ": " + capacity);
+        }
+        int blocks = capacity / BLOCK_SIZE;
+        this.mask = capacity - 1;
+        this.blockMask = blocks - 1;
+        this.safetyMargin = capacity / 8;
+        this.times = new long[capacity];
+        this.values = new float[CHANNELS.length][capacity];
+        this.blockMin = new float[CHANNELS.length][blocks];
+        this.blockMax = new float[CHANNELS.length][blocks];
+    }
+
+    /**
+     * Appends one reading. Must only be called from the single writer thread, with non-decreasing
+     * timestamps.
+     */
+    public void append(long timeMillis, SensorData data) {
+        long index = size;
+        int slot = (int) (index & mask);
+        int block = (int) ((index / BLOCK_SIZE) & blockMask);
+        boolean blockStart = index % BLOCK_SIZE == 0;
+
+        times[slot] = timeMillis;
+        for (SensorChannel channel : CHANNELS) {
+            int c = channel.ordinal();
+            float value = channel.read(data);
+            values[c][slot] = value;
+            if (blockStart) {
+                blockMin[c][block] = value;
+                blockMax[c][block] = value;
+            } else {
+                blockMin[c][block] = Math.min(blockMin[c][block], value);
+                blockMax[c][block] = Math.max(blockMax[c][block], value);
+            }
+        }
+        size = index + 1;
+    }
+
+    /**
+     * Total number of samples ever appended; doubles as a change counter.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Summarizes {@code channel} over the {@code windowMillis} ending at {@code endMillis} into
+     * {@code columns} equal time slices. For each column the first, min, max and last sample value
+     * is written to the arrays; columns without samples get {@code NaN}.
+     *
+     * @return {@code false} if the window holds no samples at all
+     */
+    public boolean decimate(SensorChannel channel, long endMillis, long windowMillis, int columns,
+                            float[] first, float[] min, float[] max, float[] last) {
+        long end = size;
+        long start = Math.max(0, end - (mask + 1) + safetyMargin);
+        long startMillis = endMillis - windowMillis;
+        Arrays.fill(first, 0, columns, Float.NaN);
+        Arrays.fill(min, 0, columns, Float.NaN);
+        Arrays.fill(max, 0, columns, Float.NaN);
+        Arrays.fill(last, 0, columns, Float.NaN);
+        if (end == start) {
+            return false;
+        }
+
+        float[] channelValues = values[channel.ordinal()];
+        long from = indexAtOrAfter(startMillis, start, end);
+        boolean any = false;
+        for (int column = 0; column < columns && from < end; column++) {
+            long columnEndMillis = startMillis + (windowMillis * (column + 1)) / columns;
+            long to = column == columns - 1 ? indexAtOrAfter(columnEndMillis + 1, from, end)
+                    : indexAtOrAfter(columnEndMillis, from, end);
+            if (to > from) {
+                first[column] = channelValues[(int) (from & mask)];
+                last[column] = channelValues[(int) ((to - 1) & mask)];
+                summarize(channel.ordinal(), from, to, column, min, max);
+                any = true;
+            }
+            from = to;
+        }
+        return any;
+    }
+
+    private void summarize(int channel, long from, long to, int column, float[] min, float[] max) {
+        float[] channelValues = values[channel];
+        float lo = Float.POSITIVE_INFINITY;
+        float hi = Float.NEGATIVE_INFINITY;
+        long i = from;
+        while (i < to && i % BLOCK_SIZE != 0) {
+            float value = channelValues[(int) (i++ & mask)];
+            lo = Math.min(lo, value);
+            hi = Math.max(hi, value);
+        }
+        while (i + BLOCK_SIZE <= to) {
+            int block = (int) ((i / BLOCK_SIZE) & blockMask);
+            lo = Math.min(lo, blockMin[channel][block]);
+            hi = Math.max(hi, blockMax[channel][block]);
+            i += BLOCK_SIZE;
+        }
+        while (i < to) {
+            float value = channelValues[(int) (i++ & mask)];
+            lo = Math.min(lo, value);
+            hi = Math.max(hi, value);
+        }
+        min[column] = lo;
+        max[column] = hi;
+    }
+
+    /**
+     * Time of the newest sample, or {@link Long#MIN_VALUE} if there is none.
+     */
+    public long latestTimeMillis() {
+        long end = size;
+        return end == 0 ? Long.MIN_VALUE : times[(int) ((end - 1) & mask)];
+    }
+
+    private long indexAtOrAfter(long timeMillis, long from, long to) {
+        long lo = from;
+        long hi = to;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (times[(int) (mid & mask)] < timeMillis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mertblk.sensorui.serial;
+
+import com.mertblk.sensorui.model.SensorData;
+
+/**
+ * Layout of the compact binary sensor frame, 11 bytes instead of ~30 for the CSV line:
+ * <pre>
+ * offset size field
+ *      0    1 sync byte 0xA5
+ *      1    1 payload length (5)
+ *      2    2 sequence number, uint16 LE
+ *      4    2 temperature in 1/100 °C, int16 LE
+ *      6    2 humidity in 1/10 %, uint16 LE
+ *      8    1 flags: bit0 fire, bit1 light, bit2 s1, bit3 s2, bit4 sa
+ *      9    2 CRC-16/CCITT-FALSE over bytes 1..8, LE
+ * </pre>
+ */
+public final class BinaryFrame {
+
+    public static final byte SYNC = (byte) 0xA5;
+    public static final int PAYLOAD_LENGTH = 5;
+    public static final int HEADER_LENGTH = 4;
+    public static final int FRAME_LENGTH = HEADER_LENGTH + PAYLOAD_LENGTH + 2;
+
+    static final int FLAG_FIRE = 1;
+    static final int FLAG_LIGHT = 1 << 1;
+    static final int FLAG_S1 = 1 << 2;
+    static final int FLAG_S2 = 1 << 3;
+    static final int FLAG_SA = 1 << 4;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            CRC_TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    private BinaryFrame() {
+    }
+
+    static int crc16(byte[] buf, int off, int len) {
+        int crc = 0xFFFF;
+        for (int i = off; i < off + len; i++) {
+            crc = ((crc << 8) ^ CRC_TABLE[((crc >>> 8) ^ buf[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc;
+    }
+
+    /**
+     * Encodes one reading into {@code out[off, off + FRAME_LENGTH)}.
+     */
+    public static void encode(int sequence, SensorData data, byte[] out, int off) {
+        int temperature = Math.round(data.getTemperature() * 100);
+        int humidity = data.getHumidity() * 10;
+        int flags = (data.getFire() != 0 ? FLAG_FIRE : 0)
+                | (data.getLight() != 0 ? FLAG_LIGHT : 0)
+                | (data.getS1() != 0 ? FLAG_S1 : 0)
+                | (data.getS2() != 0 ? FLAG_S2 : 0)
+                | (data.getSa() != 0 ? FLAG_SA : 0);
+
+        out[off] = SYNC;
+        out[off + 1] = PAYLOAD_LENGTH;
+        out[off + 2] = (byte) sequence;
+        out[off + 3] = (byte) (sequence >>> 8);
+        out[off + 4] = (byte) temperature;
+        out[off + 5] = (byte) (temperature >>> 8);
+        out[off + 6] = (byte) humidity;
+        out[off + 7] = (byte) (humidity >>> 8);
+        out[off + 8] = (byte) flags;
+        int crc = crc16(out, off + 1, HEADER_LENGTH - 1 + PAYLOAD_LENGTH);
+        out[off + 9] = (byte) crc;
+        out[off + 10] = (byte) (crc >>> 8);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mertblk.sensorui.serial;
+
+import com.mertblk.sensorui.model.SensorData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HexFormat;
+
+/**
+ * Decodes {@link BinaryFrame} frames from a byte stream. Corrupted frames fail their CRC and are
+ * skipped by resynchronizing on the next sync byte; gaps in the sequence numbers are counted as
+ * lost frames. A long run of bytes without any sync byte is reported as malformed too, so a
+ * stream that is not binary at all does not go unnoticed.
+ */
+public class BinaryFrameParser implements FrameDecoder {
+
+    private static final int MAX_NOISE_BYTES = 256;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[4096];
+    private int start = 0;
+    private int end = 0;
+
+    private final byte[] lastFrame = new byte[BinaryFrame.FRAME_LENGTH];
+    private int noiseBytes = 0;
+    private boolean lastWasNoise = false;
+    private int expectedSequence = -1;
+    private long malformedCount = 0;
+    private long lostFrameCount = 0;
+
+    public BinaryFrameParser(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public Result next(SensorData target) throws IOException {
+        while (true) {
+            while (start < end && buffer[start] != BinaryFrame.SYNC) {
+                start++;
+                if (++noiseBytes == MAX_NOISE_BYTES) {
+                    noiseBytes = 0;
+                    lastWasNoise = true;
+                    malformedCount++;
+                    return Result.MALFORMED;
+                }
+            }
+
+            if (end - start >= 2 && buffer[start + 1] != BinaryFrame.PAYLOAD_LENGTH) {
+                return rejectFrame(2);
+            }
+
+            if (end - start >= BinaryFrame.FRAME_LENGTH) {
+                int crcOffset = start + BinaryFrame.HEADER_LENGTH + BinaryFrame.PAYLOAD_LENGTH;
+                int expectedCrc = (buffer[crcOffset] & 0xFF) | (buffer[crcOffset + 1] & 0xFF) << 8;
+                if (BinaryFrame.crc16(buffer, start + 1, crcOffset - start - 1) != expectedCrc) {
+                    return rejectFrame(BinaryFrame.FRAME_LENGTH);
+                }
+                decode(buffer, start, target);
+                start += BinaryFrame.FRAME_LENGTH;
+                noiseBytes = 0;
+                return Result.FRAME;
+            }
+
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            }
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read <= 0) {
+                return Result.END_OF_STREAM;
+            }
+            end += read;
+        }
+    }
+
+    /**
+     * Remembers the rejected bytes for diagnostics and resynchronizes one byte past the false sync.
+     */
+    private Result rejectFrame(int available) {
+        System.arraycopy(buffer, start, lastFrame, 0, Math.min(available, lastFrame.length));
+        lastWasNoise = false;
+        start++;
+        malformedCount++;
+        return Result.MALFORMED;
+    }
+
+    private void decode(byte[] buf, int off, SensorData target) {
+        int sequence = (buf[off + 2] & 0xFF) | (buf[off + 3] & 0xFF) << 8;
+        if (expectedSequence >= 0) {
+            lostFrameCount += (sequence - expectedSequence) & 0xFFFF;
+        }
+        expectedSequence = (sequence + 1) & 0xFFFF;
+
+        short temperature = (short) ((buf[off + 4] & 0xFF) | (buf[off + 5] & 0xFF) << 8);
+        int humidity = (buf[off + 6] & 0xFF) | (buf[off + 7] & 0xFF) << 8;
+        int flags = buf[off + 8];
+
+        target.setTemperature(temperature / 100f);
+        target.setHumidity(humidity / 10);
+        target.setFire((flags & BinaryFrame.FLAG_FIRE) != 0 ? 1 : 0);
+        target.setLight((flags & BinaryFrame.FLAG_LIGHT) != 0 ? 1 : 0);
+        target.setS1((flags & BinaryFrame.FLAG_S1) != 0 ? 1 : 0);
+        target.setS2((flags & BinaryFrame.FLAG_S2) != 0 ? 1 : 0);
+        target.setSa((flags & BinaryFrame.FLAG_SA) != 0 ? 1 : 0);
+    }
+
+    @Override
+    public long getMalformedCount() {
+        return malformedCount;
+    }
+
+    @Override
+    public long getLostFrameCount() {
+        return lostFrameCount;
+    }
+
+    @Override
+    public String describeLastFrame() {
+        if (lastWasNoise) {
+            return MAX_NOISE_BYTES + " bytes without a sync byte";
+        }
+        return "bad binary frame " + HexFormat.ofDelimiter(" ").formatHex(lastFrame);
+    }
+}
@@ -0,0 +1,108 @@
+package com.mertblk.sensorui.serial;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded capture (CSV lines or binary frames) as if it arrived over a serial line at
+ * the given baud rate, i.e. at most {@code baudRate / 10} bytes per second. A baud rate of zero
+ * or less replays as fast as the reader consumes. Named {@code file:path}.
+ */
+public class FileReplaySensorSource implements SensorSource {
+
+    private final String name;
+    private final Path file;
+    private final int bytesPerSecond;
+    private volatile InputStream inputStream;
+
+    public FileReplaySensorSource(String name, Path file, int baudRate) {
+        this.name = name;
+        this.file = file;
+        this.bytesPerSecond = baudRate / 10;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void open() throws IOException {
+        InputStream in = Files.newInputStream(file);
+        inputStream = bytesPerSecond > 0 ? new ThrottledInputStream(in, bytesPerSecond) : in;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return inputStream != null;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public void close() {
+        InputStream in = inputStream;
+        inputStream = null;
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands out bytes no faster than a fixed rate, measured from the first read so a slow reader
+     * catches up in bursts instead of drifting.
+     */
+    private static class ThrottledInputStream extends InputStream {
+
+        private final InputStream in;
+        private final int bytesPerSecond;
+        private long startNanos = -1;
+        private long delivered = 0;
+
+        ThrottledInputStream(InputStream in, int bytesPerSecond) {
+            this.in = in;
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (startNanos < 0) {
+                startNanos = System.nanoTime();
+            }
+            long allowed;
+            while ((allowed = (System.nanoTime() - startNanos) * bytesPerSecond / 1_000_000_000L - delivered) <= 0) {
+                LockSupport.parkNanos(1_000_000_000L / bytesPerSecond);
+            }
+            int read = in.read(b, off, (int) Math.min(len, allowed));
+            if (read > 0) {
+                delivered += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
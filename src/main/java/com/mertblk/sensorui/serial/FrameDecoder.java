@@ -0,0 +1,34 @@
+package com.mertblk.sensorui.serial;
+
+import com.mertblk.sensorui.model.SensorData;
+
+import java.io.IOException;
+
+/**
+ * Decodes sensor frames from a byte stream into a caller-supplied, reusable {@link SensorData}.
+ */
+public interface FrameDecoder {
+
+    enum Result { FRAME, MALFORMED, END_OF_STREAM }
+
+    /**
+     * Reads the next frame into {@code target}. On {@link Result#MALFORMED} the contents of
+     * {@code target} are unspecified.
+     */
+    Result next(SensorData target) throws IOException;
+
+    long getMalformedCount();
+
+    /**
+     * Frames known to be lost in transit, for protocols that can tell. Zero otherwise.
+     */
+    default long getLostFrameCount() {
+        return 0;
+    }
+
+    /**
+     * Human-readable description of the last malformed frame. Allocates, so it is only meant
+     * for diagnostics on the error path.
+     */
+    String describeLastFrame();
+}
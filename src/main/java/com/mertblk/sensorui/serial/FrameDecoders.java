@@ -0,0 +1,78 @@
+package com.mertblk.sensorui.serial;
+
+import com.mertblk.sensorui.model.SensorData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * Chooses a {@link FrameDecoder} by looking at the first bytes a device sends. A single byte
+ * proves nothing: noise before the first line can contain a {@link BinaryFrame#SYNC} byte, and a
+ * binary stream joined mid-frame can contain a newline. So the protocol is only chosen on positive
+ * evidence, whichever comes first in the stream: a sync byte starting a whole frame whose CRC
+ * checks selects binary, a line that parses as a complete CSV frame selects text. If neither shows
+ * up within the detection window, the text parser is used; callers re-detect when a decoder keeps
+ * reporting {@link FrameDecoder.Result#MALFORMED}.
+ */
+public final class FrameDecoders {
+
+    private static final int DETECTION_WINDOW = 1024;
+
+    private FrameDecoders() {
+    }
+
+    /**
+     * Detects the protocol and returns a decoder positioned at the first byte that was read. Bytes
+     * already buffered by an earlier decoder on the same stream are not seen again.
+     */
+    public static FrameDecoder autoDetect(InputStream in) throws IOException {
+        PushbackInputStream stream = new PushbackInputStream(in, DETECTION_WINDOW);
+        byte[] probe = new byte[DETECTION_WINDOW];
+        SensorLineParser lineChecker = new SensorLineParser(InputStream.nullInputStream());
+        SensorData scratch = new SensorData();
+        int length = 0;
+        int scanned = 0;
+        int lineStart = 0;
+        boolean binary = false;
+        boolean decided = false;
+
+        while (!decided && length < probe.length) {
+            int read = stream.read(probe, length, probe.length - length);
+            if (read <= 0) {
+                break;
+            }
+            length += read;
+            for (; scanned < length && !decided; scanned++) {
+                byte b = probe[scanned];
+                if (b == BinaryFrame.SYNC) {
+                    if (length - scanned < BinaryFrame.FRAME_LENGTH) {
+                        // Need the rest of the frame before this position can be judged.
+                        break;
+                    }
+                    if (isValidFrame(probe, scanned)) {
+                        binary = true;
+                        decided = true;
+                    }
+                } else if (b == '\n') {
+                    if (lineChecker.parseLine(probe, lineStart, scanned - lineStart, scratch)) {
+                        decided = true;
+                    }
+                    lineStart = scanned + 1;
+                }
+            }
+        }
+
+        stream.unread(probe, 0, length);
+        return binary ? new BinaryFrameParser(stream) : new SensorLineParser(stream);
+    }
+
+    private static boolean isValidFrame(byte[] buf, int off) {
+        if (buf[off + 1] != BinaryFrame.PAYLOAD_LENGTH) {
+            return false;
+        }
+        int crcOffset = off + BinaryFrame.HEADER_LENGTH + BinaryFrame.PAYLOAD_LENGTH;
+        int expectedCrc = (buf[crcOffset] & 0xFF) | (buf[crcOffset + 1] & 0xFF) << 8;
+        return BinaryFrame.crc16(buf, off + 1, crcOffset - off - 1) == expectedCrc;
+    }
+}
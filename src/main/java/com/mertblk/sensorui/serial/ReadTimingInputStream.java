@@ -0,0 +1,43 @@
+package com.mertblk.sensorui.serial;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Remembers when the last read from the wrapped source returned data, so a decoder's caller can
+ * tell how long a frame sat in buffers before it was decoded.
+ */
+public class ReadTimingInputStream extends FilterInputStream {
+
+    private volatile long lastReadNanos = System.nanoTime();
+
+    public ReadTimingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            lastReadNanos = System.nanoTime();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            lastReadNanos = System.nanoTime();
+        }
+        return n;
+    }
+
+    /**
+     * {@link System#nanoTime()} at the end of the last read that returned at least one byte.
+     */
+    public long getLastReadNanos() {
+        return lastReadNanos;
+    }
+}
@@ -0,0 +1,216 @@
+package com.mertblk.sensorui.serial;
+
+import com.mertblk.sensorui.model.SensorData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads newline-terminated CSV frames ({@code LABEL,temp,fire,humidity,light,s1,s2,sa}) straight
+ * from a byte stream and decodes them into a caller-supplied {@link SensorData} without creating
+ * intermediate Strings. Malformed lines are reported through {@link Result#MALFORMED} instead of
+ * exceptions so one bad line never stops the reader.
+ */
+public class SensorLineParser implements FrameDecoder {
+
+    public static final int FIELD_COUNT = 8;
+    private static final int MAX_LINE_LENGTH = 256;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    private final InputStream in;
+    private final byte[] readBuffer = new byte[4096];
+    private int readPos = 0;
+    private int readLimit = 0;
+
+    private final byte[] line = new byte[MAX_LINE_LENGTH];
+    private int lineLength = 0;
+    private int lastLineLength = 0;
+    private boolean lineOverflow = false;
+
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+
+    private long malformedCount = 0;
+
+    public SensorLineParser(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public Result next(SensorData target) throws IOException {
+        while (true) {
+            if (readPos == readLimit) {
+                readLimit = in.read(readBuffer, 0, readBuffer.length);
+                readPos = 0;
+                if (readLimit <= 0) {
+                    readLimit = 0;
+                    return Result.END_OF_STREAM;
+                }
+            }
+
+            while (readPos < readLimit) {
+                byte b = readBuffer[readPos++];
+                if (b == '\n') {
+                    boolean ok = !lineOverflow && parseLine(line, 0, lineLength, target);
+                    if (!ok) {
+                        malformedCount++;
+                    }
+                    lastLineLength = lineLength;
+                    lineLength = 0;
+                    lineOverflow = false;
+                    return ok ? Result.FRAME : Result.MALFORMED;
+                }
+                if (lineLength < MAX_LINE_LENGTH) {
+                    line[lineLength++] = b;
+                } else {
+                    lineOverflow = true;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String describeLastFrame() {
+        return new String(line, 0, lastLineLength, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public long getMalformedCount() {
+        return malformedCount;
+    }
+
+    /**
+     * Decodes one CSV frame from {@code buf[off, off + len)} into {@code target}.
+     *
+     * @return {@code false} if the line does not have exactly {@link #FIELD_COUNT} well-formed fields
+     */
+    public boolean parseLine(byte[] buf, int off, int len, SensorData target) {
+        int end = off + len;
+        if (end > off && buf[end - 1] == '\r') {
+            end--;
+        }
+
+        int field = 0;
+        int start = off;
+        for (int i = off; i <= end; i++) {
+            if (i == end || buf[i] == ',') {
+                if (field == FIELD_COUNT) {
+                    return false;
+                }
+                fieldStart[field] = start;
+                fieldEnd[field] = i;
+                field++;
+                start = i + 1;
+            }
+        }
+        if (field != FIELD_COUNT) {
+            return false;
+        }
+
+        float temperature = parseDecimal(buf, fieldStart[1], fieldEnd[1]);
+        int fire = parseInt(buf, fieldStart[2], fieldEnd[2]);
+        float humidity = parseDecimal(buf, fieldStart[3], fieldEnd[3]);
+        int light = parseInt(buf, fieldStart[4], fieldEnd[4]);
+        int s1 = parseInt(buf, fieldStart[5], fieldEnd[5]);
+        int s2 = parseInt(buf, fieldStart[6], fieldEnd[6]);
+        int sa = parseInt(buf, fieldStart[7], fieldEnd[7]);
+
+        if (Float.isNaN(temperature) || Float.isNaN(humidity)
+                || fire == Integer.MIN_VALUE || light == Integer.MIN_VALUE
+                || s1 == Integer.MIN_VALUE || s2 == Integer.MIN_VALUE || sa == Integer.MIN_VALUE) {
+            return false;
+        }
+
+        target.setTemperature(temperature);
+        target.setFire(fire);
+        target.setHumidity((int) humidity);
+        target.setLight(light);
+        target.setS1(s1);
+        target.setS2(s2);
+        target.setSa(sa);
+        return true;
+    }
+
+    /**
+     * Parses an optionally signed decimal such as {@code -12.5}. Returns {@code NaN} if the
+     * field is empty or contains anything else.
+     */
+    static float parseDecimal(byte[] buf, int start, int end) {
+        while (start < end && buf[start] == ' ') start++;
+        while (end > start && buf[end - 1] == ' ') end--;
+        if (start == end) {
+            return Float.NaN;
+        }
+
+        boolean negative = false;
+        if (buf[start] == '-' || buf[start] == '+') {
+            negative = buf[start] == '-';
+            start++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean seenPoint = false;
+        for (int i = start; i < end; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenPoint) scale++;
+                    digits++;
+                } else if (!seenPoint) {
+                    return Float.NaN;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return Float.NaN;
+            }
+        }
+        if (digits == 0) {
+            return Float.NaN;
+        }
+
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Parses an optionally signed integer. Returns {@link Integer#MIN_VALUE} if the field is
+     * empty, contains anything else or overflows.
+     */
+    static int parseInt(byte[] buf, int start, int end) {
+        while (start < end && buf[start] == ' ') start++;
+        while (end > start && buf[end - 1] == ' ') end--;
+        if (start == end) {
+            return Integer.MIN_VALUE;
+        }
+
+        boolean negative = false;
+        if (buf[start] == '-' || buf[start] == '+') {
+            negative = buf[start] == '-';
+            start++;
+            if (start == end) {
+                return Integer.MIN_VALUE;
+            }
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf[i];
+            if (b < '0' || b > '9') {
+                return Integer.MIN_VALUE;
+            }
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) {
+                return Integer.MIN_VALUE;
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+}
@@ -0,0 +1,25 @@
+package com.mertblk.sensorui.serial;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A byte stream a sensor board's frames arrive on. Reading blocks until data is available;
+ * {@link #close()} unblocks a pending read, which then fails or reports end of stream.
+ */
+public interface SensorSource extends AutoCloseable {
+
+    /**
+     * Name the source was created from, also used as the device id of its readings.
+     */
+    String getName();
+
+    void open() throws IOException;
+
+    boolean isOpen();
+
+    InputStream getInputStream();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,38 @@
+package com.mertblk.sensorui.serial;
+
+import java.nio.file.Path;
+
+/**
+ * Creates a {@link SensorSource} from the name the user picked or typed:
+ * {@code tcp:host:port}, {@code file:path}, or anything else as a serial port name.
+ */
+public final class SensorSources {
+
+    public static final String TCP_PREFIX = "tcp:";
+    public static final String FILE_PREFIX = "file:";
+
+    private SensorSources() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if a {@code tcp:} name has no valid port
+     */
+    public static SensorSource create(String name, int baudRate) {
+        if (name.startsWith(TCP_PREFIX)) {
+            String address = name.substring(TCP_PREFIX.length());
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Expected tcp:host:port but got " + name);
+            }
+            try {
+                return new TcpSensorSource(name, address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid TCP port in " + name);
+            }
+        }
+        if (name.startsWith(FILE_PREFIX)) {
+            return new FileReplaySensorSource(name, Path.of(name.substring(FILE_PREFIX.length())), baudRate);
+        }
+        return new SerialSensorSource(name, baudRate);
+    }
+}
@@ -0,0 +1,49 @@
+package com.mertblk.sensorui.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A sensor board on a local serial port.
+ */
+public class SerialSensorSource implements SensorSource {
+
+    private final SerialPort port;
+
+    public SerialSensorSource(String portName, int baudRate) {
+        this.port = SerialPort.getCommPort(portName);
+        port.setBaudRate(baudRate);
+        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 0, 0);
+    }
+
+    @Override
+    public String getName() {
+        return port.getSystemPortName();
+    }
+
+    @Override
+    public void open() throws IOException {
+        if (!port.openPort()) {
+            throw new IOException("Cannot open serial port " + port.getSystemPortName());
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return port.isOpen();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return port.getInputStream();
+    }
+
+    @Override
+    public void close() {
+        if (port.isOpen()) {
+            port.closePort();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mertblk.sensorui.serial;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Frames streamed over TCP, e.g. from {@code MockArduino --transport tcp} or a serial-to-network
+ * bridge. Named {@code tcp:host:port}.
+ */
+public class TcpSensorSource implements SensorSource {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 3000;
+
+    private final String name;
+    private final String host;
+    private final int port;
+    private volatile Socket socket;
+    private InputStream inputStream;
+
+    public TcpSensorSource(String name, String host, int port) {
+        this.name = name;
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void open() throws IOException {
+        Socket newSocket = new Socket();
+        try {
+            newSocket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            newSocket.setReceiveBufferSize(64 * 1024);
+            inputStream = newSocket.getInputStream();
+        } catch (IOException e) {
+            newSocket.close();
+            throw e;
+        }
+        socket = newSocket;
+    }
+
+    @Override
+    public boolean isOpen() {
+        Socket current = socket;
+        return current != null && !current.isClosed();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public void close() {
+        Socket current = socket;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            System.err.println("Error closing " + name + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mertblk.sensorui.view;
+
+import com.mertblk.sensorui.archive.SessionArchive;
+import com.mertblk.sensorui.model.SensorReading;
+import javafx.collections.ObservableListBase;
+
+import java.io.IOException;
+
+/**
+ * Read-only list over an archived session, newest first, optionally starting at a given time.
+ * Archives never change, so unlike {@link PagedReadingList} there is nothing to refresh; rows
+ * are decoded from the file as the table asks for them. The list owns a reference to the archive,
+ * released by {@link #dispose()}.
+ */
+class ArchivedReadingList extends ObservableListBase<SensorReading> {
+
+    private final SessionArchive archive;
+    private final int firstIndex;
+
+    ArchivedReadingList(SessionArchive archive, long fromMillis) throws IOException {
+        this.archive = archive;
+        this.firstIndex = archive.indexAtOrAfter(fromMillis);
+    }
+
+    @Override
+    public SensorReading get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return archive.get(archive.size() - 1 - index);
+    }
+
+    @Override
+    public int size() {
+        return archive.size() - firstIndex;
+    }
+
+    void dispose() {
+        try {
+            archive.close();
+        } catch (IOException e) {
+            System.err.println("Error closing session archive: " + e.getMessage());
+        }
+    }
+}
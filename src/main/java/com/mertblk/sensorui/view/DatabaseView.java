@@ -1,46 +1,90 @@
 package com.mertblk.sensorui.view;
 
+import com.mertblk.sensorui.archive.ArchiveStore;
+import com.mertblk.sensorui.archive.SessionArchive;
 import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.HotSessionCache;
+import com.mertblk.sensorui.db.QueryCancellation;
+import com.mertblk.sensorui.db.ReadingCount;
 import com.mertblk.sensorui.model.SensorReading;
 import com.mertblk.sensorui.viewmodel.SensorViewModel;
 import io.github.palexdev.materialfx.controls.MFXButton;
 import io.github.palexdev.materialfx.controls.MFXComboBox;
 import io.github.palexdev.materialfx.controls.MFXDatePicker;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Objects;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Browser for recorded readings. Every query runs on a single background thread: filter changes
+ * are debounced and supersede the load in flight, new-data notifications are coalesced into at most
+ * one incremental refresh per {@link #REFRESH_INTERVAL}, and the table shows a loading placeholder
+ * until the first result arrives.
+ */
 public class DatabaseView {
 
+    private static final Duration FILTER_DEBOUNCE = Duration.millis(150);
+    private static final Duration REFRESH_INTERVAL = Duration.millis(500);
+
     private final TableView<SensorReading> tableView = new TableView<>();
-    private final ObservableList<SensorReading> tableData = FXCollections.observableArrayList();
     private final MFXDatePicker datePicker = new MFXDatePicker();
     private final MFXComboBox<String> sessionComboBox = new MFXComboBox<>();
 
     private final SensorViewModel viewModel;
+    private final DatabaseManager database;
+    private final ArchiveStore archiveStore;
     private final String initialSessionId;
     private final Runnable onNewDataListener;
 
-    public DatabaseView(SensorViewModel viewModel, String initialSessionId) {
+    private final ExecutorService queryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database-view-query");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PauseTransition filterDebounce = new PauseTransition(FILTER_DEBOUNCE);
+    private final PauseTransition refreshThrottle = new PauseTransition(REFRESH_INTERVAL);
+
+    private PagedReadingList tableData;
+    private ArchivedReadingList archivedData;
+    private Task<ObservableList<SensorReading>> loadTask;
+    private QueryCancellation loadCancellation;
+
+    public DatabaseView(SensorViewModel viewModel, DatabaseManager database, ArchiveStore archiveStore, String initialSessionId) {
         this.viewModel = viewModel;
+        this.database = database;
+        this.archiveStore = archiveStore;
         this.initialSessionId = initialSessionId;
-        this.onNewDataListener = () -> Platform.runLater(this::refreshData);
+        this.onNewDataListener = this::refreshData;
+        filterDebounce.setOnFinished(event -> loadFilteredData());
+        refreshThrottle.setOnFinished(event -> {
+            if (tableData != null && loadTask == null) {
+                tableData.refresh();
+            }
+        });
     }
 
     public void show() {
@@ -61,9 +105,16 @@ public class DatabaseView {
         stage.setScene(scene);
         stage.show();
 
-        viewModel.addOnNewDataListener(onNewDataListener);
+        viewModel.addOnNewDataListener(onNewDataListener, Platform::runLater);
 
-        stage.setOnCloseRequest(event -> viewModel.removeOnNewDataListener(onNewDataListener));
+        stage.setOnCloseRequest(event -> {
+            viewModel.removeOnNewDataListener(onNewDataListener);
+            filterDebounce.stop();
+            refreshThrottle.stop();
+            cancelLoad();
+            disposeTableData();
+            queryExecutor.shutdown();
+        });
 
         loadInitialDataAndApplyFilter();
     }
@@ -114,71 +165,212 @@ public class DatabaseView {
     }
 
     private void setupTableView() {
-        tableView.setItems(tableData);
-        createColumn("ID", "id", 50);
-        createColumn("Session ID", "sessionId", 250);
-        createColumn("Timestamp", "timestamp", 150);
-        createColumn("Elapsed (s)", "elapsedSeconds", 100);
-        createColumn("Temp (°C)", "temperature", 80);
-        createColumn("Humidity (%)", "humidity", 80);
-        createColumn("Light", "light", 80);
-        createColumn("Fire", "fire", 50);
-        createColumn("S1", "s1", 50);
-        createColumn("S2", "s2", 50);
-        createColumn("SA", "sa", 50);
+        createColumn("ID", SensorReading::id, 50);
+        createColumn("Session ID", SensorReading::sessionId, 250);
+        createColumn("Device", SensorReading::deviceId, 100);
+        createColumn("Timestamp", SensorReading::timestamp, 150);
+        createColumn("Elapsed (s)", SensorReading::elapsedSeconds, 100);
+        createColumn("Temp (°C)", SensorReading::temperature, 80);
+        createColumn("Humidity (%)", SensorReading::humidity, 80);
+        createColumn("Light", SensorReading::light, 80);
+        createColumn("Fire", SensorReading::fire, 50);
+        createColumn("S1", SensorReading::s1, 50);
+        createColumn("S2", SensorReading::s2, 50);
+        createColumn("SA", SensorReading::sa, 50);
     }
 
-    private <T> void createColumn(String title, String propertyName, double width) {
+    /**
+     * Cell values are wrapped on demand, so only rows the table is currently rendering
+     * ever get an observable value.
+     */
+    private <T> void createColumn(String title, Function<SensorReading, T> getter, double width) {
         TableColumn<SensorReading, T> column = new TableColumn<>(title);
-        column.setCellValueFactory(new PropertyValueFactory<>(propertyName));
+        column.setCellValueFactory(cellData -> cellData.getValue() == null
+                ? null
+                : new ReadOnlyObjectWrapper<>(getter.apply(cellData.getValue())));
         column.setPrefWidth(width);
+        column.setSortable(false);
         tableView.getColumns().add(column);
     }
 
     private void loadInitialDataAndApplyFilter() {
-        List<String> sessionIds = DatabaseManager.getDistinctSessionIds();
-        sessionComboBox.setItems(FXCollections.observableArrayList(sessionIds));
+        showPlaceholder(true, "Loading records...");
+        Task<List<String>> task = new Task<>() {
+            @Override
+            protected List<String> call() {
+                return database.getDistinctSessionIds();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            List<String> sessionIds = task.getValue();
+            sessionComboBox.setItems(FXCollections.observableArrayList(sessionIds));
 
-        if (initialSessionId != null && sessionIds.contains(initialSessionId)) {
-            sessionComboBox.setValue(initialSessionId);
-        }
+            if (initialSessionId != null && sessionIds.contains(initialSessionId)) {
+                sessionComboBox.setValue(initialSessionId);
+            }
 
-        applyFilters();
+            loadFilteredData();
+        });
+        queryExecutor.execute(task);
     }
 
+    /**
+     * Picks up only the rows committed since the last load that match the applied filter,
+     * instead of re-running the whole query. Bursts of notifications share one refresh.
+     */
     private void refreshData() {
-        List<String> sessionIds = DatabaseManager.getDistinctSessionIds();
-        String selectedSession = sessionComboBox.getValue();
-        sessionComboBox.setItems(FXCollections.observableArrayList(sessionIds));
-        if (selectedSession != null && sessionIds.contains(selectedSession)) {
-            sessionComboBox.setValue(selectedSession);
+        String currentSessionId = viewModel.getCurrentSessionId();
+        if (currentSessionId != null && !sessionComboBox.getItems().contains(currentSessionId)) {
+            sessionComboBox.getItems().add(0, currentSessionId);
         }
 
-        applyFilters();
+        if (refreshThrottle.getStatus() != Animation.Status.RUNNING) {
+            refreshThrottle.playFromStart();
+        }
     }
 
+    /**
+     * Reloads the table once the filter has stopped changing for {@link #FILTER_DEBOUNCE}.
+     */
     private void applyFilters() {
-        StringBuilder filterSql = new StringBuilder("WHERE 1=1 ");
-        List<Object> params = new ArrayList<>();
+        filterDebounce.playFromStart();
+    }
 
-        if (datePicker.getValue() != null) {
-            filterSql.append("AND timestamp >= ? ");
-            params.add(datePicker.getValue().atStartOfDay().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        }
+    /**
+     * Replaces the table contents with the rows matching the current filter. The count (or the
+     * archive lookup) runs in the background; a load that is still running is cancelled first,
+     * together with any page queries of the list being replaced.
+     */
+    private void loadFilteredData() {
+        cancelLoad();
+        disposeTableData();
 
-        if (sessionComboBox.getValue() != null && !sessionComboBox.getValue().isEmpty()) {
-            filterSql.append("AND session_id = ? ");
-            params.add(sessionComboBox.getValue());
-        }
-
-        filterSql.append("ORDER BY timestamp DESC");
+        long fromMillis = datePicker.getValue() == null ? Long.MIN_VALUE
+                : datePicker.getValue().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String sessionId = sessionComboBox.getValue() == null || sessionComboBox.getValue().isEmpty() ? null : sessionComboBox.getValue();
+        ReadingFilter filter = new ReadingFilter(sessionId, fromMillis);
 
         int selectedIndex = tableView.getSelectionModel().getSelectedIndex();
+        HotSessionCache cache = viewModel.getHotSessionCache();
+        QueryCancellation cancellation = new QueryCancellation();
+        Task<ObservableList<SensorReading>> task = new Task<>() {
+            // The archive list call() made, until the FX thread takes it over. Guarded by this.
+            private ArchivedReadingList archived;
+
+            @Override
+            protected ObservableList<SensorReading> call() throws Exception {
+                // The live session cannot have been archived, so it skips the archive lookup as well.
+                SessionArchive archive = sessionId == null || sessionId.equals(cache.getSessionId()) ? null : openArchive(sessionId);
+                if (archive != null) {
+                    ArchivedReadingList rows;
+                    try {
+                        rows = new ArchivedReadingList(archive, fromMillis);
+                    } catch (IOException | RuntimeException e) {
+                        archive.close();
+                        throw e;
+                    }
+                    synchronized (this) {
+                        if (isCancelled()) {
+                            rows.dispose();
+                            return FXCollections.emptyObservableList();
+                        }
+                        archived = rows;
+                    }
+                    return rows;
+                }
+                ReadingCount count = PagedReadingList.count(database, cache, filter, cancellation);
+                return new PagedReadingList(database, cache, filter, count, queryExecutor, cancellation);
+            }
+
+            // A cancelled task never hands its value over, so the archive it opened is released here.
+            @Override
+            protected synchronized void cancelled() {
+                if (archived != null) {
+                    archived.dispose();
+                    archived = null;
+                }
+            }
+        };
+        task.setOnSucceeded(event -> {
+            ObservableList<SensorReading> rows = task.getValue();
+            if (task != loadTask) {
+                if (rows instanceof ArchivedReadingList archived) {
+                    archived.dispose();
+                }
+                return;
+            }
+            loadTask = null;
+            loadCancellation = null;
+            tableData = rows instanceof PagedReadingList paged ? paged : null;
+            archivedData = rows instanceof ArchivedReadingList archived ? archived : null;
+            tableView.setItems(rows);
+            showPlaceholder(false, "No records match the filter.");
+
+            if (selectedIndex != -1 && selectedIndex < rows.size()) {
+                tableView.getSelectionModel().select(selectedIndex);
+            }
+        });
+        task.setOnFailed(event -> {
+            if (task != loadTask) {
+                return;
+            }
+            loadTask = null;
+            loadCancellation = null;
+            System.err.println("Error loading sensor data: " + task.getException().getMessage());
+            showPlaceholder(false, "Could not load records: " + task.getException().getMessage());
+        });
+
+        loadTask = task;
+        loadCancellation = cancellation;
+        tableView.setItems(FXCollections.observableArrayList());
+        showPlaceholder(true, "Loading records...");
+        queryExecutor.execute(task);
+    }
 
-        tableData.setAll(DatabaseManager.getSensorReadings(filterSql.toString(), params));
+    private void cancelLoad() {
+        if (loadTask != null) {
+            loadCancellation.cancel();
+            loadTask.cancel();
+            loadTask = null;
+            loadCancellation = null;
+        }
+    }
+
+    private void disposeTableData() {
+        if (tableData != null) {
+            tableData.dispose();
+            tableData = null;
+        }
+        if (archivedData != null) {
+            archivedData.dispose();
+            archivedData = null;
+        }
+    }
+
+    private void showPlaceholder(boolean loading, String text) {
+        Label label = new Label(text);
+        label.setStyle("-fx-text-fill: white;");
+        if (loading) {
+            ProgressIndicator indicator = new ProgressIndicator();
+            indicator.setMaxSize(32, 32);
+            HBox placeholder = new HBox(10, indicator, label);
+            placeholder.setAlignment(Pos.CENTER);
+            tableView.setPlaceholder(placeholder);
+        } else {
+            tableView.setPlaceholder(label);
+        }
+    }
 
-        if (selectedIndex != -1 && selectedIndex < tableData.size()) {
-            tableView.getSelectionModel().select(selectedIndex);
+    /**
+     * Archived sessions are read straight from their archive file instead of the database. The
+     * caller owns the returned reference.
+     */
+    private SessionArchive openArchive(String sessionId) {
+        try {
+            return archiveStore.open(sessionId);
+        } catch (IOException e) {
+            System.err.println("Error opening session archive: " + e.getMessage());
+            return null;
         }
     }
-}
\ No newline at end of file
+}
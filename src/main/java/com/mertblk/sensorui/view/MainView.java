@@ -1,22 +1,34 @@
 package com.mertblk.sensorui.view;
 
+import com.mertblk.sensorui.archive.ArchiveStore;
+import com.mertblk.sensorui.archive.SessionArchiveTask;
 import com.mertblk.sensorui.db.DatabaseManager;
-import com.mertblk.sensorui.model.SensorReading;
+import com.mertblk.sensorui.db.RetentionManager;
+import com.mertblk.sensorui.db.RetentionPolicy;
+import com.mertblk.sensorui.db.RollupBucket;
+import com.mertblk.sensorui.export.ExportFormat;
+import com.mertblk.sensorui.export.ReadingExportTask;
+import com.mertblk.sensorui.export.SessionExportTask;
+import com.mertblk.sensorui.metrics.IngestMetrics;
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorDataModel;
+import com.mertblk.sensorui.model.SensorHistory;
 import com.mertblk.sensorui.viewmodel.SensorViewModel;
 import io.github.palexdev.materialfx.controls.MFXButton;
 import io.github.palexdev.materialfx.controls.MFXComboBox;
 import io.github.palexdev.materialfx.controls.MFXTextField;
 import io.github.palexdev.materialfx.enums.FloatMode;
-import io.github.palexdev.materialfx.theming.JavaFXThemes;
-import io.github.palexdev.materialfx.theming.MaterialFXStylesheets;
-import io.github.palexdev.materialfx.theming.UserAgentBuilder;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
-import javafx.beans.binding.Bindings;
-import javafx.beans.property.StringProperty;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -26,36 +38,124 @@ import javafx.scene.text.Font;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import javafx.util.Duration;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class MainView extends Application {
 
-    private final SensorViewModel viewModel = new SensorViewModel();
+    private final DatabaseManager database = new DatabaseManager();
+    private final SensorViewModel viewModel = new SensorViewModel(database);
+    private final ArchiveStore archiveStore = new ArchiveStore(database, ArchiveStore.DEFAULT_DIRECTORY);
+    private final RetentionManager retention = new RetentionManager(database, viewModel.getHotSessionCache(),
+            archiveStore, RetentionPolicy.fromSystemProperties());
     private File selectedDirectory;
 
+    private static final List<String> TREND_WINDOW_NAMES = List.of("1 min", "10 min", "1 h", "6 h", "24 h", "7 d", "30 d");
+    private static final long[] TREND_WINDOW_MILLIS = {60_000L, 600_000L, 3_600_000L, 21_600_000L,
+            86_400_000L, 604_800_000L, 2_592_000_000L};
+    // Longer windows are drawn from the rollup tables: the in-memory history only holds what
+    // arrived since connecting, and never more than its capacity.
+    private static final long LIVE_TREND_MAX_MILLIS = 21_600_000L;
+    // Enough for minute buckets over 24 h; longer windows fall back to hourly buckets.
+    private static final int TREND_MAX_BUCKETS = 1_500;
+    private final List<SensorTile> sensorTiles = new ArrayList<>();
+    private long trendWindowMillis = TREND_WINDOW_MILLIS[1];
+    private List<RollupBucket> trendRollups;
+    private long trendRollupsEndMillis;
+    private boolean trendRollupsLoading = false;
+    private static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+    private long lastPulseNanos = -1;
+    private long pulseWindowStartNanos;
+    private long worstPulseLagNanos;
+    // Tiles check for new values and samples every frame but only redraw when there are some.
+    private final AnimationTimer chartPulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (trendWindowMillis > LIVE_TREND_MAX_MILLIS) {
+                for (SensorTile tile : sensorTiles) {
+                    tile.render(trendRollups, trendRollupsEndMillis, trendWindowMillis);
+                }
+            } else {
+                SensorHistory history = viewModel.getSelectedHistory();
+                for (SensorTile tile : sensorTiles) {
+                    tile.render(history, trendWindowMillis);
+                }
+            }
+            recordPulseLag(now);
+        }
+    };
+    private final Timeline metricsRefresh = new Timeline();
+    private final Timeline trendRollupRefresh = new Timeline(new KeyFrame(Duration.minutes(1), event -> loadTrendRollups()));
+
+    // Quits a few seconds after the dashboard is shown; used for the CDS training run of the dist profile.
+    private static final String EXIT_AFTER_STARTUP_PROPERTY = "sensorui.exitAfterStartup";
+    private static final Executor STARTUP_THREADS = task -> {
+        Thread thread = new Thread(task, "startup");
+        thread.setDaemon(true);
+        thread.start();
+    };
+    private final Label splashStatus = new Label("Starting...");
+    private CompletableFuture<Void> startup = CompletableFuture.completedFuture(null);
+    private boolean closed = false;
+
     @Override
     public void start(Stage stage) {
-        DatabaseManager.initializeDatabase();
+        // The window comes up with a placeholder at once; the slow parts of startup run in parallel
+        // in the background and the dashboard replaces the placeholder when all of them are done.
+        Scene scene = new Scene(createSplash(), 1000, 800);
+        stage.setTitle("Sensor Dashboard");
+        stage.setScene(scene);
+        stage.setMinWidth(800);
+        stage.setMinHeight(500);
+        stage.setOnCloseRequest(event -> shutdown());
+        stage.show();
 
-        UserAgentBuilder.builder()
-                .themes(JavaFXThemes.MODENA)
-                .themes(MaterialFXStylesheets.forAssemble(true))
-                .setDeploy(true)
-                .setResolveAssets(true)
-                .build()
-                .setGlobal();
+        CompletableFuture<Void> databaseReady = CompletableFuture.runAsync(database::initializeDatabase, STARTUP_THREADS);
+        CompletableFuture<String> stylesheet = CompletableFuture.supplyAsync(
+                () -> UserAgentStylesheet.load(UserAgentStylesheet.DEFAULT_DIRECTORY), STARTUP_THREADS);
+        CompletableFuture<List<String>> ports = CompletableFuture.supplyAsync(SensorViewModel::findPortNames, STARTUP_THREADS);
+        startup = CompletableFuture.allOf(databaseReady, stylesheet, ports);
+        startup.whenComplete((ignored, error) -> Platform.runLater(() -> {
+            if (closed) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.err.println("Error during startup: " + cause.getMessage());
+                splashStatus.setText("Startup failed: " + cause.getMessage());
+                if (Boolean.getBoolean(EXIT_AFTER_STARTUP_PROPERTY)) {
+                    Platform.exit();
+                }
+                return;
+            }
+            Application.setUserAgentStylesheet(stylesheet.join());
+            viewModel.showPorts(ports.join());
+            showDashboard(stage);
+        }));
+    }
+
+    private Parent createSplash() {
+        Label titleLabel = new Label("Sensor Dashboard");
+        titleLabel.setFont(new Font("System Bold", 24));
+        titleLabel.setTextFill(Color.LIGHTGRAY);
 
+        splashStatus.setTextFill(Color.GRAY);
+
+        VBox splash = new VBox(20, titleLabel, new ProgressIndicator(), splashStatus);
+        splash.setAlignment(Pos.CENTER);
+        splash.setStyle("-fx-background-color: #1e1e1e;");
+        return splash;
+    }
+
+    private void showDashboard(Stage stage) {
         BorderPane root = new BorderPane();
         root.setStyle("-fx-background-color: #1e1e1e;");
 
@@ -66,21 +166,51 @@ public class MainView extends Application {
         root.setTop(topContainer);
 
         GridPane sensorGrid = createSensorGrid();
-        root.setCenter(sensorGrid);
-        BorderPane.setMargin(sensorGrid, new Insets(20));
+        VBox.setVgrow(sensorGrid, Priority.ALWAYS);
+        VBox dashboard = new VBox(10, createTrendWindowBar(), sensorGrid);
+        root.setCenter(dashboard);
+        BorderPane.setMargin(dashboard, new Insets(20));
 
         HBox statusBar = createStatusBar();
         root.setBottom(statusBar);
 
-        Scene scene = new Scene(root, 1000, 800);
+        Scene scene = stage.getScene();
         scene.getStylesheets().add(Objects.requireNonNull(getClass().getResource("/styles/main-view.css")).toExternalForm());
-        stage.setTitle("Sensor Dashboard");
-        stage.setScene(scene);
-        stage.setMinWidth(800);
-        stage.setMinHeight(500);
-        stage.show();
+        scene.setRoot(root);
+        chartPulse.start();
+        metricsRefresh.play();
+        trendRollupRefresh.setCycleCount(Timeline.INDEFINITE);
+        trendRollupRefresh.play();
+        IngestMetrics.registerMBeans();
+        retention.start();
+
+        ProcessHandle.current().info().startInstant().ifPresent(launched ->
+                System.out.println("Dashboard shown " + (System.currentTimeMillis() - launched.toEpochMilli())
+                        + " ms after launch."));
+        if (Boolean.getBoolean(EXIT_AFTER_STARTUP_PROPERTY)) {
+            // Training run for the class data sharing archive: let a few frames render, then quit.
+            Timeline exit = new Timeline(new KeyFrame(Duration.seconds(3), event -> {
+                shutdown();
+                Platform.exit();
+            }));
+            exit.play();
+        }
+    }
 
-        stage.setOnCloseRequest(event -> viewModel.disconnect());
+    private void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        chartPulse.stop();
+        metricsRefresh.stop();
+        trendRollupRefresh.stop();
+        // Closing while still starting up: let the background steps finish before closing the database under them.
+        startup.exceptionally(error -> null).join();
+        IngestMetrics.unregisterMBeans();
+        retention.shutdown();
+        viewModel.shutdown();
+        database.close();
     }
 
     private MenuBar createMenuBar(Stage stage) {
@@ -88,13 +218,16 @@ public class MainView extends Application {
         Menu dbMenu = new Menu("Database");
         MenuItem showDataMenuItem = new MenuItem("Show Records");
         showDataMenuItem.setOnAction(event -> {
-            new DatabaseView(viewModel, viewModel.getCurrentSessionId()).show();
+            new DatabaseView(viewModel, database, archiveStore, viewModel.getCurrentSessionId()).show();
         });
 
-        MenuItem exportExcelMenuItem = new MenuItem("Export to Excel");
-        exportExcelMenuItem.setOnAction(event -> showExportDialog(stage));
+        MenuItem exportMenuItem = new MenuItem("Export...");
+        exportMenuItem.setOnAction(event -> showExportDialog(stage));
+
+        MenuItem archiveMenuItem = new MenuItem("Archive Session...");
+        archiveMenuItem.setOnAction(event -> showArchiveDialog(stage));
 
-        dbMenu.getItems().addAll(showDataMenuItem, exportExcelMenuItem);
+        dbMenu.getItems().addAll(showDataMenuItem, exportMenuItem, archiveMenuItem);
         menuBar.getMenus().add(dbMenu);
         return menuBar;
     }
@@ -142,13 +275,20 @@ public class MainView extends Application {
         Label sessionLabel = new Label("Select Session:");
         sessionLabel.setTextFill(Color.WHITE);
 
-        List<String> sessions = DatabaseManager.getDistinctSessionIds();
-        MFXComboBox<String> sessionComboBox = new MFXComboBox<>(FXCollections.observableArrayList(sessions));
-        sessionComboBox.setFloatingText("Choose a session");
+        MFXComboBox<String> sessionComboBox = new MFXComboBox<>();
         sessionComboBox.setPrefWidth(300);
-
-        // Select All Checkbox
-        CheckBox selectAllCheckBox = new CheckBox("Export All Data (All Sessions)");
+        loadSessions(sessionComboBox, archiveStore::getSessionIds);
+
+        // Format Selection
+        Label formatLabel = new Label("Format:");
+        formatLabel.setTextFill(Color.WHITE);
+        MFXComboBox<ExportFormat> formatComboBox = new MFXComboBox<>(FXCollections.observableArrayList(ExportFormat.values()));
+        formatComboBox.setFloatingText("Choose a format");
+        formatComboBox.setPrefWidth(300);
+        formatComboBox.selectItem(ExportFormat.EXCEL);
+
+        // Select All Checkbox; every session goes to its own file
+        CheckBox selectAllCheckBox = new CheckBox("Export All Data (One File per Session)");
         selectAllCheckBox.setTextFill(Color.WHITE);
         selectAllCheckBox.setSelected(false);
 
@@ -159,11 +299,20 @@ public class MainView extends Application {
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
 
+        // Export progress
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(360);
+        progressBar.setVisible(false);
+        Label progressLabel = new Label();
+        progressLabel.setTextFill(Color.LIGHTGRAY);
+
         // Export Button
         MFXButton exportButton = new MFXButton("Export");
         exportButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white;");
         exportButton.setPrefWidth(100);
 
+        MFXButton cancelButton = new MFXButton("Cancel");
+
         exportButton.setOnAction(event -> {
             // Validation
             if (selectedDirectory == null) {
@@ -183,102 +332,221 @@ public class MainView extends Application {
                 return;
             }
 
-            // Determine Data to Export
-            List<SensorReading> dataToExport;
-            if (selectAllCheckBox.isSelected()) {
-                dataToExport = DatabaseManager.getSensorReadings("ORDER BY timestamp DESC", List.of());
-            } else {
-                String selectedSession = sessionComboBox.getValue();
-                dataToExport = DatabaseManager.getSensorReadings("WHERE session_id = ? ORDER BY timestamp DESC", List.of(selectedSession));
-            }
+            ExportFormat format = formatComboBox.getValue() != null ? formatComboBox.getValue() : ExportFormat.EXCEL;
+            String inputName = nameField.getText().trim();
+            String baseName = inputName.isEmpty() ? "SensorData_" + System.currentTimeMillis() : inputName;
 
-            if (dataToExport.isEmpty()) {
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Info");
-                alert.setHeaderText(null);
-                alert.setContentText("No data found to export.");
-                alert.showAndWait();
+            // All sessions go into a folder named after the export, one file each, written in parallel
+            if (selectAllCheckBox.isSelected()) {
+                File directory = new File(selectedDirectory, baseName);
+                SessionExportTask task = new SessionExportTask(archiveStore, format, directory);
+                startExport(task, directory, dialog, progressBar, progressLabel, exportButton, cancelButton);
                 return;
             }
 
             // Determine File Name
-            String inputName = nameField.getText().trim();
-            String finalFileName = inputName.isEmpty() ? "SensorData_" + System.currentTimeMillis() : inputName;
-            if (!finalFileName.endsWith(".xlsx")) {
-                finalFileName += ".xlsx";
-            }
+            String finalFileName = baseName.endsWith(format.getExtension()) ? baseName : baseName + format.getExtension();
 
             File file = new File(selectedDirectory, finalFileName);
-            performExcelExport(file, dataToExport);
-            dialog.close();
+            // Archived sessions are read from their archive files
+            ReadingExportTask task = new ReadingExportTask(archiveStore, sessionComboBox.getValue(), format, file);
+            startExport(task, file, dialog, progressBar, progressLabel, exportButton, cancelButton);
         });
 
         // Cancel Button
-        MFXButton cancelButton = new MFXButton("Cancel");
         cancelButton.setStyle("-fx-background-color: #f44336; -fx-text-fill: white;");
         cancelButton.setPrefWidth(100);
         cancelButton.setOnAction(event -> dialog.close());
+        dialog.setOnCloseRequest(event -> {
+            if (exportButton.isDisable()) {
+                event.consume();
+            }
+        });
 
         buttonBox.getChildren().addAll(exportButton, cancelButton);
 
-        dialogLayout.getChildren().addAll(dirLabel, dirBox, nameLabel, nameField, selectAllCheckBox, sessionLabel, sessionComboBox, buttonBox);
+        dialogLayout.getChildren().addAll(dirLabel, dirBox, nameLabel, nameField, formatLabel, formatComboBox, selectAllCheckBox, sessionLabel, sessionComboBox, progressBar, progressLabel, buttonBox);
 
-        Scene dialogScene = new Scene(dialogLayout, 400, 450);
+        Scene dialogScene = new Scene(dialogLayout, 400, 580);
         dialog.setScene(dialogScene);
         dialog.show();
     }
 
-    private void performExcelExport(File file, List<SensorReading> readings) {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Sensor Data");
-
-            // Create header row
-            String[] headers = {"ID", "Session ID", "Timestamp", "Elapsed (s)", "Temp (°C)", "Humidity (%)", "Light", "Fire", "S1", "S2", "SA"};
-            Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-            }
-
-            // Populate rows
-            int rowNum = 1;
-            for (SensorReading reading : readings) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(reading.getId());
-                row.createCell(1).setCellValue(reading.getSessionId());
-                row.createCell(2).setCellValue(reading.getTimestamp().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                row.createCell(3).setCellValue(reading.getElapsedSeconds());
-                row.createCell(4).setCellValue(reading.getTemperature());
-                row.createCell(5).setCellValue(reading.getHumidity());
-                row.createCell(6).setCellValue(reading.getLight());
-                row.createCell(7).setCellValue(reading.getFire());
-                row.createCell(8).setCellValue(reading.getS1());
-                row.createCell(9).setCellValue(reading.getS2());
-                row.createCell(10).setCellValue(reading.getSa());
-            }
-
-            // Write the workbook to the file
-            try (FileOutputStream fileOut = new FileOutputStream(file)) {
-                workbook.write(fileOut);
+    private void startExport(Task<Integer> task, File target, Stage dialog, ProgressBar progressBar, Label progressLabel,
+                             MFXButton exportButton, MFXButton cancelButton) {
+        progressBar.setVisible(true);
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressLabel.textProperty().bind(task.messageProperty());
+        exportButton.setDisable(true);
+        cancelButton.setOnAction(event -> task.cancel());
+
+        Runnable restoreDialog = () -> {
+            progressBar.progressProperty().unbind();
+            progressLabel.textProperty().unbind();
+            progressBar.setVisible(false);
+            progressLabel.setText("");
+            exportButton.setDisable(false);
+            cancelButton.setOnAction(event -> dialog.close());
+        };
+
+        task.setOnSucceeded(event -> {
+            restoreDialog.run();
+            if (task.getValue() == 0) {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Info");
+                alert.setHeaderText(null);
+                alert.setContentText("No data found to export.");
+                alert.showAndWait();
+                return;
             }
 
-            System.out.println("Excel file was created successfully: " + file.getAbsolutePath());
+            System.out.println("Export was created successfully: " + target.getAbsolutePath());
+            dialog.close();
 
-            // Optional: Show success message
             Alert alert = new Alert(Alert.AlertType.INFORMATION);
             alert.setTitle("Success");
             alert.setHeaderText(null);
-            alert.setContentText("Export successful!\nSaved to: " + file.getAbsolutePath());
+            alert.setContentText("Export successful!\nSaved to: " + target.getAbsolutePath());
             alert.showAndWait();
+        });
 
-        } catch (IOException e) {
-            System.err.println("Error while exporting to Excel: " + e.getMessage());
+        task.setOnCancelled(event -> {
+            restoreDialog.run();
+            progressLabel.setText("Export cancelled.");
+        });
+
+        task.setOnFailed(event -> {
+            restoreDialog.run();
+            Throwable error = task.getException();
+            System.err.println("Error while exporting data: " + error.getMessage());
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Error");
             alert.setHeaderText("Export Failed");
-            alert.setContentText(e.getMessage());
+            alert.setContentText(error.getMessage());
             alert.showAndWait();
-        }
+        });
+
+        Thread exportThread = new Thread(task, "data-export");
+        exportThread.setDaemon(true);
+        exportThread.start();
+    }
+
+    private void showArchiveDialog(Stage owner) {
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.WINDOW_MODAL);
+        dialog.initOwner(owner);
+        dialog.setTitle("Archive Session");
+        dialog.setResizable(false);
+
+        VBox dialogLayout = new VBox(15);
+        dialogLayout.setPadding(new Insets(20));
+        dialogLayout.setStyle("-fx-background-color: #2a2a2a;");
+        dialogLayout.setAlignment(Pos.CENTER_LEFT);
+
+        Label sessionLabel = new Label("Select Session:");
+        sessionLabel.setTextFill(Color.WHITE);
+
+        // The session being recorded is still growing and cannot be archived yet; archive-only ones are done
+        String currentSessionId = viewModel.getCurrentSessionId();
+        MFXComboBox<String> sessionComboBox = new MFXComboBox<>();
+        sessionComboBox.setPrefWidth(300);
+        loadSessions(sessionComboBox, () -> {
+            List<String> sessions = new ArrayList<>(database.getDistinctSessionIds());
+            sessions.remove(currentSessionId);
+            sessions.removeAll(database.getArchiveOnlySessions().keySet());
+            return sessions;
+        });
+
+        CheckBox deleteCheckBox = new CheckBox("Remove raw rows from the database");
+        deleteCheckBox.setTextFill(Color.WHITE);
+
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(360);
+        progressBar.setVisible(false);
+        Label progressLabel = new Label();
+        progressLabel.setTextFill(Color.LIGHTGRAY);
+
+        MFXButton archiveButton = new MFXButton("Archive");
+        archiveButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white;");
+        archiveButton.setPrefWidth(100);
+        MFXButton closeButton = new MFXButton("Close");
+        closeButton.setStyle("-fx-background-color: #f44336; -fx-text-fill: white;");
+        closeButton.setPrefWidth(100);
+        closeButton.setOnAction(event -> dialog.close());
+
+        archiveButton.setOnAction(event -> {
+            String sessionId = sessionComboBox.getValue();
+            if (sessionId == null) {
+                progressLabel.setText("Please select a session.");
+                return;
+            }
+            SessionArchiveTask task = new SessionArchiveTask(archiveStore, sessionId, deleteCheckBox.isSelected());
+
+            progressBar.setVisible(true);
+            progressBar.progressProperty().bind(task.progressProperty());
+            progressLabel.textProperty().bind(task.messageProperty());
+            archiveButton.setDisable(true);
+            closeButton.setDisable(true);
+
+            Runnable restoreDialog = () -> {
+                progressBar.progressProperty().unbind();
+                progressLabel.textProperty().unbind();
+                progressBar.setVisible(false);
+                archiveButton.setDisable(false);
+                closeButton.setDisable(false);
+            };
+            task.setOnSucceeded(done -> {
+                restoreDialog.run();
+                progressLabel.setText("Archived " + task.getValue() + " rows of " + sessionId + ".");
+                System.out.println("Session archived: " + sessionId + " (" + task.getValue() + " rows)");
+            });
+            task.setOnFailed(failed -> {
+                restoreDialog.run();
+                System.err.println("Error while archiving session: " + task.getException().getMessage());
+                progressLabel.setText("Archiving failed: " + task.getException().getMessage());
+            });
+
+            Thread archiveThread = new Thread(task, "session-archive");
+            archiveThread.setDaemon(true);
+            archiveThread.start();
+        });
+        dialog.setOnCloseRequest(event -> {
+            if (archiveButton.isDisable()) {
+                event.consume();
+            }
+        });
+
+        HBox buttonBox = new HBox(10, archiveButton, closeButton);
+        buttonBox.setAlignment(Pos.CENTER);
+        dialogLayout.getChildren().addAll(sessionLabel, sessionComboBox, deleteCheckBox, progressBar, progressLabel, buttonBox);
+
+        dialog.setScene(new Scene(dialogLayout, 400, 300));
+        dialog.show();
+    }
+
+    /**
+     * Fills {@code comboBox} with the result of {@code query}, run in the background so opening a
+     * dialog never waits for a read connection.
+     */
+    private void loadSessions(MFXComboBox<String> comboBox, Callable<List<String>> query) {
+        comboBox.setFloatingText("Loading sessions...");
+        Task<List<String>> task = new Task<>() {
+            @Override
+            protected List<String> call() throws Exception {
+                return query.call();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            comboBox.setItems(FXCollections.observableArrayList(task.getValue()));
+            comboBox.setFloatingText("Choose a session");
+        });
+        task.setOnFailed(event -> {
+            System.err.println("Error loading sessions: " + task.getException().getMessage());
+            comboBox.setFloatingText("Sessions could not be loaded");
+        });
+        Thread thread = new Thread(task, "session-list");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     private HBox createConnectionBar() {
@@ -293,6 +561,18 @@ public class MainView extends Application {
         MFXComboBox<String> comboPorts = new MFXComboBox<>(viewModel.getPortNames());
         comboPorts.setFloatingText("Select Port");
         comboPorts.setPrefWidth(150);
+        // Typed entries such as tcp:localhost:5000 or file:capture.bin connect to non-serial sources
+        comboPorts.setAllowEdit(true);
+
+        MFXComboBox<Integer> comboBaudRate = new MFXComboBox<>(FXCollections.observableArrayList(9600, 19200, 38400, 57600, 115200));
+        comboBaudRate.setFloatingText("Baud Rate");
+        comboBaudRate.setPrefWidth(110);
+        comboBaudRate.selectItem(viewModel.baudRateProperty().get());
+        comboBaudRate.selectedItemProperty().addListener((obs, oldRate, newRate) -> {
+            if (newRate != null) {
+                viewModel.baudRateProperty().set(newRate);
+            }
+        });
 
         MFXTextField sessionNameField = new MFXTextField();
         sessionNameField.setFloatingText("Optional: Session Name");
@@ -300,6 +580,7 @@ public class MainView extends Application {
         sessionNameField.setPrefWidth(250);
 
         MFXButton connectButton = new MFXButton("Connect");
+        MFXButton addPortButton = new MFXButton("Add Port");
         MFXButton disconnectButton = new MFXButton("Disconnect");
         MFXButton refreshButton = new MFXButton("Refresh Ports");
 
@@ -308,21 +589,40 @@ public class MainView extends Application {
         connectButton.setOnAction(event -> {
             boolean success = viewModel.startRecording(sessionNameField.getText());
             if (success) {
-                viewModel.connectToPort(comboPorts.getValue());
+                viewModel.connectToPort(comboPorts.getText());
             }
         });
+        addPortButton.setOnAction(event -> viewModel.connectToPort(comboPorts.getText()));
         disconnectButton.setOnAction(event -> viewModel.disconnect());
 
-        comboPorts.disableProperty().bind(viewModel.connectedProperty());
         sessionNameField.disableProperty().bind(viewModel.connectedProperty());
         refreshButton.disableProperty().bind(viewModel.connectedProperty());
         connectButton.disableProperty().bind(viewModel.connectedProperty());
+        addPortButton.disableProperty().bind(viewModel.connectedProperty().not());
         disconnectButton.disableProperty().bind(viewModel.connectedProperty().not());
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        connectionBar.getChildren().addAll(portLabel, comboPorts, sessionNameField, connectButton, disconnectButton, refreshButton, spacer);
+        // Device shown on the dashboard when several boards are attached
+        MFXComboBox<String> comboDevices = new MFXComboBox<>(viewModel.getDeviceIds());
+        comboDevices.setFloatingText("Show Device");
+        comboDevices.setPrefWidth(150);
+        comboDevices.disableProperty().bind(viewModel.connectedProperty().not());
+        comboDevices.selectedItemProperty().addListener((obs, oldDevice, newDevice) -> {
+            if (newDevice != null) {
+                viewModel.selectedDeviceProperty().set(newDevice);
+            }
+        });
+        viewModel.selectedDeviceProperty().addListener((obs, oldDevice, newDevice) -> {
+            if (newDevice == null) {
+                comboDevices.clearSelection();
+            } else if (!newDevice.equals(comboDevices.getSelectedItem())) {
+                comboDevices.selectItem(newDevice);
+            }
+        });
+
+        connectionBar.getChildren().addAll(portLabel, comboPorts, comboBaudRate, sessionNameField, connectButton, addPortButton, disconnectButton, refreshButton, spacer, comboDevices);
         return connectionBar;
     }
 
@@ -351,9 +651,104 @@ public class MainView extends Application {
             }
         });
 
+        Label alarmLabel = new Label();
+        alarmLabel.textProperty().bind(viewModel.alarmMessageProperty());
+        alarmLabel.setTextFill(Color.LIGHTGRAY);
+        viewModel.alarmMessageProperty().addListener((obs, oldMessage, newMessage) ->
+                alarmLabel.setTextFill(newMessage.startsWith("Alarm") ? Color.ORANGERED : Color.LIGHTGRAY));
+
+        Label metricsLabel = new Label();
+        metricsLabel.setTextFill(Color.LIGHTGRAY);
+        metricsLabel.setMinWidth(Region.USE_PREF_SIZE);
+        MetricsSummary summary = new MetricsSummary();
+        metricsRefresh.getKeyFrames().setAll(new KeyFrame(Duration.seconds(1), event -> metricsLabel.setText(summary.next())));
+        metricsRefresh.setCycleCount(Timeline.INDEFINITE);
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        statusBar.getChildren().addAll(statusIndicator, statusLabel, alarmLabel, spacer, metricsLabel);
         return statusBar;
     }
 
+    /**
+     * Publishes the worst amount by which pulses overran the frame budget during each second,
+     * which is how long the FX thread was busy with something other than drawing.
+     */
+    private void recordPulseLag(long now) {
+        if (lastPulseNanos < 0) {
+            pulseWindowStartNanos = now;
+        } else {
+            worstPulseLagNanos = Math.max(worstPulseLagNanos, now - lastPulseNanos - FRAME_BUDGET_NANOS);
+        }
+        lastPulseNanos = now;
+        if (now - pulseWindowStartNanos >= 1_000_000_000L) {
+            IngestMetrics.FX_PULSE_LAG_MICROS.set(worstPulseLagNanos / 1000);
+            worstPulseLagNanos = 0;
+            pulseWindowStartNanos = now;
+        }
+    }
+
+    private HBox createTrendWindowBar() {
+        Label windowLabel = new Label("Trend Window:");
+        windowLabel.setTextFill(Color.LIGHTGRAY);
+
+        MFXComboBox<String> comboWindow = new MFXComboBox<>(FXCollections.observableArrayList(TREND_WINDOW_NAMES));
+        comboWindow.setPrefWidth(110);
+        comboWindow.selectItem(TREND_WINDOW_NAMES.get(1));
+        comboWindow.selectedItemProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (newWindow != null) {
+                trendWindowMillis = TREND_WINDOW_MILLIS[TREND_WINDOW_NAMES.indexOf(newWindow)];
+                trendRollups = null;
+                loadTrendRollups();
+            }
+        });
+        viewModel.selectedDeviceProperty().addListener((obs, oldDevice, newDevice) -> {
+            trendRollups = null;
+            loadTrendRollups();
+        });
+
+        HBox bar = new HBox(10, windowLabel, comboWindow);
+        bar.setAlignment(Pos.CENTER_RIGHT);
+        return bar;
+    }
+
+    /**
+     * Reloads the rollup buckets behind a long trend window in the background. Covers all devices
+     * while none is connected, so past sessions can still be looked at.
+     */
+    private void loadTrendRollups() {
+        if (trendWindowMillis <= LIVE_TREND_MAX_MILLIS || trendRollupsLoading) {
+            return;
+        }
+        long windowMillis = trendWindowMillis;
+        String deviceId = viewModel.selectedDeviceProperty().get();
+        long endMillis = System.currentTimeMillis();
+        trendRollupsLoading = true;
+        Task<List<RollupBucket>> task = new Task<>() {
+            @Override
+            protected List<RollupBucket> call() {
+                return database.getRollups(deviceId, endMillis - windowMillis, endMillis, TREND_MAX_BUCKETS);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            trendRollupsLoading = false;
+            if (windowMillis == trendWindowMillis && Objects.equals(deviceId, viewModel.selectedDeviceProperty().get())) {
+                trendRollups = task.getValue();
+                trendRollupsEndMillis = endMillis;
+            } else {
+                // The window or device changed while loading.
+                loadTrendRollups();
+            }
+        });
+        task.setOnFailed(event -> {
+            trendRollupsLoading = false;
+            System.err.println("Error loading trend: " + task.getException().getMessage());
+        });
+        Thread thread = new Thread(task, "trend-rollups");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private GridPane createSensorGrid() {
         GridPane grid = new GridPane();
         grid.setHgap(20);
@@ -365,53 +760,29 @@ public class MainView extends Application {
         ColumnConstraints col2 = new ColumnConstraints();
         col2.setHgrow(Priority.ALWAYS);
         grid.getColumnConstraints().addAll(col1, col2);
+        for (int row = 0; row < 4; row++) {
+            RowConstraints rowConstraints = new RowConstraints();
+            rowConstraints.setVgrow(Priority.ALWAYS);
+            grid.getRowConstraints().add(rowConstraints);
+        }
 
-        grid.add(createSensorDisplay("Temperature", viewModel.getModel().temperatureProperty()), 0, 0);
-        grid.add(createSensorDisplay("Humidity", viewModel.getModel().humidityProperty()), 1, 0);
-        grid.add(createSensorDisplay("Light Level", viewModel.getModel().lightProperty()), 0, 1);
-        grid.add(createSensorDisplay("Fire Alarm", viewModel.getModel().fireAlarmProperty()), 1, 1);
-        grid.add(createSensorDisplay("Sound 1", viewModel.getModel().sound1Property()), 0, 2);
-        grid.add(createSensorDisplay("Sound 2", viewModel.getModel().sound2Property()), 1, 2);
-
-        Node soundAlarmDisplay = createSensorDisplay("Sound Alarm", viewModel.getModel().soundAlarmProperty());
-        GridPane.setColumnSpan(soundAlarmDisplay, 2);
-        grid.add(soundAlarmDisplay, 0, 3);
+        SensorChannel[] channels = SensorChannel.values();
+        for (int i = 0; i < channels.length; i++) {
+            Node tile = createSensorTile(channels[i]);
+            if (channels[i] == SensorChannel.SOUND_ALARM) {
+                GridPane.setColumnSpan(tile, 2);
+            }
+            grid.add(tile, i % 2, i / 2);
+        }
 
         return grid;
     }
 
-    private Node createSensorDisplay(String title, StringProperty dataProperty) {
-        VBox box = new VBox(10);
-        box.setAlignment(Pos.CENTER);
-        box.setStyle("-fx-background-color: #2a2a2a; -fx-padding: 20; -fx-border-radius: 8; -fx-background-radius: 8;");
-
-        Label titleLabel = new Label(title);
-        titleLabel.setFont(new Font("System Bold", 18));
-        titleLabel.setTextFill(Color.LIGHTGRAY);
-
-        Label dataLabel = new Label();
-        dataLabel.setFont(new Font("System Regular", 24));
-        dataLabel.setTextFill(Color.WHITE);
-
-        dataLabel.textProperty().bind(Bindings.createStringBinding(() -> {
-            String value = dataProperty.get();
-            if (value != null && value.contains(":")) {
-                return value.substring(value.indexOf(":") + 1).trim();
-            }
-            return "N/A";
-        }, dataProperty));
-
-        if (title.toLowerCase().contains("alarm")) {
-            dataProperty.addListener((obs, oldVal, newVal) -> {
-                if (newVal != null && newVal.contains("ON")) {
-                    box.setStyle("-fx-background-color: #8B0000; -fx-padding: 20; -fx-border-radius: 8; -fx-background-radius: 8;");
-                } else {
-                    box.setStyle("-fx-background-color: #2a2a2a; -fx-padding: 20; -fx-border-radius: 8; -fx-background-radius: 8;");
-                }
-            });
-        }
-
-        box.getChildren().addAll(titleLabel, dataLabel);
-        return box;
+    private Node createSensorTile(SensorChannel channel) {
+        SensorDataModel model = viewModel.getModel();
+        SensorTile tile = new SensorTile(channel, model.valueProperty(channel), model.availableProperty(),
+                viewModel.alarmProperty(channel));
+        sensorTiles.add(tile);
+        return tile;
     }
 }
\ No newline at end of file
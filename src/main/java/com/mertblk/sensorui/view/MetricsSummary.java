@@ -0,0 +1,52 @@
+package com.mertblk.sensorui.view;
+
+import com.mertblk.sensorui.metrics.IngestMetrics;
+import com.mertblk.sensorui.metrics.LatencyHistogram;
+
+/**
+ * Turns {@link IngestMetrics} into the one-line status bar summary. Rates and percentiles cover
+ * the time since the previous call; failure counts are totals because they are rare enough to
+ * matter individually.
+ */
+class MetricsSummary {
+
+    private long lastNanos = System.nanoTime();
+    private long lastLines = IngestMetrics.LINES_READ.getCount();
+    private long lastRows = IngestMetrics.ROWS_PERSISTED.getCount();
+    private LatencyHistogram.Snapshot lastCommit = IngestMetrics.PARSE_TO_COMMIT.snapshot();
+    private LatencyHistogram.Snapshot lastQuery = IngestMetrics.QUERY.snapshot();
+
+    String next() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastNanos) / 1e9);
+        long lines = IngestMetrics.LINES_READ.getCount();
+        long rows = IngestMetrics.ROWS_PERSISTED.getCount();
+        LatencyHistogram.Snapshot commit = IngestMetrics.PARSE_TO_COMMIT.snapshot();
+        LatencyHistogram.Snapshot query = IngestMetrics.QUERY.snapshot();
+
+        String summary = String.format("In %.0f/s (%d bad, %d lost)  |  DB %.0f rows/s, queue %d, %d dropped, commit p99 %s  |  Query p99 %s  |  Pulse lag %.1f ms",
+                (lines - lastLines) / seconds,
+                IngestMetrics.PARSE_FAILURES.getCount(),
+                IngestMetrics.FRAMES_LOST.getCount(),
+                (rows - lastRows) / seconds,
+                IngestMetrics.WRITE_QUEUE_DEPTH.getValue(),
+                IngestMetrics.ROWS_DROPPED.getCount(),
+                formatPercentile(commit.minus(lastCommit), 99),
+                formatPercentile(query.minus(lastQuery), 99),
+                IngestMetrics.FX_PULSE_LAG_MICROS.getValue() / 1000.0);
+
+        lastNanos = now;
+        lastLines = lines;
+        lastRows = rows;
+        lastCommit = commit;
+        lastQuery = query;
+        return summary;
+    }
+
+    private static String formatPercentile(LatencyHistogram.Snapshot interval, double percentile) {
+        if (interval.getCount() == 0) {
+            return "-";
+        }
+        return String.format("%.1f ms", interval.percentile(percentile) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,272 @@
+package com.mertblk.sensorui.view;
+
+import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.HotSessionCache;
+import com.mertblk.sensorui.db.QueryCancellation;
+import com.mertblk.sensorui.db.ReadingCount;
+import com.mertblk.sensorui.model.SensorReading;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Read-only list over the rows matching one filter, newest first. Only the size is known up
+ * front; rows are fetched a page at a time as the virtualized {@link javafx.scene.control.TableView}
+ * asks for them, and at most {@link #MAX_CACHED_PAGES} pages are kept in memory.
+ * <p>
+ * The list lives on the FX thread but never queries from it: a missing page reads as {@code null}
+ * rows while it is fetched on the executor, and an update change is fired once it arrives.
+ * {@link #dispose()} cancels whatever the list still has running or queued.
+ * <p>
+ * New rows only ever arrive at the top, so pages are numbered from the oldest row: page {@code p}
+ * holds the rows ranked {@code [p * PAGE_SIZE, (p + 1) * PAGE_SIZE)} counting from the bottom.
+ * A refresh then leaves every full page, its key and any fetch of it in flight valid; only the
+ * partly filled newest page changes. The list is a snapshot of the rows up to its highest id, so
+ * rows committed after a count never shift a page.
+ * <p>
+ * When the filter selects the session held in the {@link HotSessionCache}, counts and pages are
+ * answered from memory as long as they fall inside the cached rows.
+ */
+class PagedReadingList extends ObservableListBase<SensorReading> {
+
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 25;
+    // Keys are one row each, so far more are kept than pages: enough to page through 200k rows by keyset.
+    private static final int MAX_CACHED_PAGE_KEYS = 1000;
+
+    private final DatabaseManager database;
+    private final HotSessionCache cache;
+    private final ReadingFilter filter;
+    private final String whereSql;
+    private final List<Object> params;
+    private final Executor executor;
+    private final QueryCancellation cancellation;
+
+    private final Map<Integer, List<SensorReading>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<SensorReading>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // Oldest row of every page loaded lately; lets the page below be fetched by keyset instead of
+    // OFFSET. A page's oldest row never changes, even while the newest page fills up.
+    private final Map<Integer, SensorReading> pageEndKeys = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, SensorReading> eldest) {
+            return size() > MAX_CACHED_PAGE_KEYS;
+        }
+    };
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private boolean refreshing = false;
+
+    private int size;
+    private int maxId;
+
+    /**
+     * @param count the result of {@link #count}, done by the caller off the FX thread
+     */
+    PagedReadingList(DatabaseManager database, HotSessionCache cache, ReadingFilter filter, ReadingCount count,
+                     Executor executor, QueryCancellation cancellation) {
+        this.database = database;
+        this.cache = cache;
+        this.filter = filter;
+        this.whereSql = filter.whereSql();
+        this.params = List.copyOf(filter.params());
+        this.executor = executor;
+        this.cancellation = cancellation;
+        this.size = count.count();
+        this.maxId = count.maxId();
+    }
+
+    /**
+     * Counts the rows matching {@code filter}, from the cache if it holds all of them.
+     */
+    static ReadingCount count(DatabaseManager database, HotSessionCache cache, ReadingFilter filter,
+                              QueryCancellation cancellation) throws SQLException {
+        ReadingCount count = filter.sessionId() == null ? null : cache.count(filter.sessionId(), filter.fromMillis());
+        return count != null ? count : database.countSensorReadings(filter.whereSql(), filter.params(), cancellation);
+    }
+
+    @Override
+    public SensorReading get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int pageIndex = (size - 1 - index) / PAGE_SIZE;
+        List<SensorReading> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int offset = index - firstIndexOf(pageIndex, size);
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * List index of the newest row of page {@code pageIndex} when the list holds {@code listSize} rows.
+     */
+    private static int firstIndexOf(int pageIndex, int listSize) {
+        return Math.max(0, listSize - (pageIndex + 1) * PAGE_SIZE);
+    }
+
+    private static boolean isFull(int pageIndex, int listSize) {
+        return (pageIndex + 1) * PAGE_SIZE <= listSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Accounts for rows committed since this list was created. They sort first, so they only
+     * change the newest page; the others are kept. Calls made while a refresh is still counting
+     * are folded into it.
+     */
+    void refresh() {
+        if (refreshing || cancellation.isCancelled()) {
+            return;
+        }
+        refreshing = true;
+        int afterId = maxId;
+        executor.execute(() -> {
+            ReadingCount added = null;
+            try {
+                added = filter.sessionId() == null ? null : cache.count(filter.sessionId(), filter.fromMillis(), afterId);
+                if (added == null) {
+                    List<Object> newRowParams = new ArrayList<>(params);
+                    newRowParams.add(afterId);
+                    added = database.countSensorReadings(whereSql + "AND id > ? ", newRowParams, cancellation);
+                }
+            } catch (SQLException e) {
+                if (!cancellation.isCancelled()) {
+                    System.err.println("Error counting new sensor data: " + e.getMessage());
+                }
+            }
+            ReadingCount result = added;
+            Platform.runLater(() -> applyRefresh(result));
+        });
+    }
+
+    void dispose() {
+        cancellation.cancel();
+    }
+
+    private void applyRefresh(ReadingCount added) {
+        refreshing = false;
+        if (added == null || added.count() == 0 || cancellation.isCancelled()) {
+            return;
+        }
+        if (size > 0 && !isFull((size - 1) / PAGE_SIZE, size)) {
+            // The newest page gets more rows; a fetch of it still in flight is dropped on arrival.
+            int newest = (size - 1) / PAGE_SIZE;
+            pages.remove(newest);
+            loadingPages.remove(newest);
+        }
+        size += added.count();
+        maxId = Math.max(maxId, added.maxId());
+
+        beginChange();
+        nextAdd(0, added.count());
+        endChange();
+    }
+
+    private void requestPage(int pageIndex) {
+        if (cancellation.isCancelled() || !loadingPages.add(pageIndex)) {
+            return;
+        }
+        int requestSize = size;
+        int requestMaxId = maxId;
+        SensorReading after = pageEndKeys.get(pageIndex + 1);
+        executor.execute(() -> {
+            List<SensorReading> page;
+            try {
+                page = fetchPage(pageIndex, after, requestSize, requestMaxId);
+            } catch (SQLException e) {
+                if (cancellation.isCancelled()) {
+                    return;
+                }
+                // Cached as empty so a failing query is not retried on every layout pass.
+                System.err.println("Error querying sensor data page: " + e.getMessage());
+                page = List.of();
+            }
+            List<SensorReading> result = page;
+            Platform.runLater(() -> applyPage(pageIndex, requestSize, result));
+        });
+    }
+
+    private List<SensorReading> fetchPage(int pageIndex, SensorReading after, int listSize, int listMaxId)
+            throws SQLException {
+        if (!isFull(pageIndex, listSize)) {
+            return fetchNewestPage(listSize - pageIndex * PAGE_SIZE, listMaxId);
+        }
+        if (after != null) {
+            if (filter.sessionId() != null) {
+                List<SensorReading> page = cache.page(filter.sessionId(), filter.fromMillis(), after, PAGE_SIZE);
+                if (page != null) {
+                    return page;
+                }
+            }
+            return database.getSensorReadingsPage(whereSql, params, after, PAGE_SIZE, cancellation);
+        }
+        return database.getSensorReadingsPage(whereSql + "AND id <= ? ", withMaxId(listMaxId),
+                firstIndexOf(pageIndex, listSize), PAGE_SIZE, cancellation);
+    }
+
+    /**
+     * The {@code rows} newest rows up to {@code listMaxId}. Rows committed since the last count
+     * sort above them and are skipped.
+     */
+    private List<SensorReading> fetchNewestPage(int rows, int listMaxId) throws SQLException {
+        if (filter.sessionId() != null) {
+            List<SensorReading> cached = cache.page(filter.sessionId(), filter.fromMillis(), null, rows + PAGE_SIZE);
+            if (cached != null) {
+                List<SensorReading> page = new ArrayList<>(rows);
+                for (SensorReading reading : cached) {
+                    if (reading.id() <= listMaxId && page.size() < rows) {
+                        page.add(reading);
+                    }
+                }
+                if (page.size() == rows) {
+                    return page;
+                }
+            }
+        }
+        return database.getSensorReadingsPage(whereSql + "AND id <= ? ", withMaxId(listMaxId), null, rows, cancellation);
+    }
+
+    private List<Object> withMaxId(int listMaxId) {
+        List<Object> boundedParams = new ArrayList<>(params);
+        boundedParams.add(listMaxId);
+        return boundedParams;
+    }
+
+    private void applyPage(int pageIndex, int requestSize, List<SensorReading> page) {
+        if (cancellation.isCancelled() || !isFull(pageIndex, requestSize) && requestSize != size) {
+            return;
+        }
+        loadingPages.remove(pageIndex);
+        pages.put(pageIndex, page);
+        if (!page.isEmpty()) {
+            pageEndKeys.put(pageIndex, page.get(page.size() - 1));
+        }
+
+        int from = firstIndexOf(pageIndex, size);
+        int to = Math.min(size, from + PAGE_SIZE);
+        if (from < to) {
+            beginChange();
+            for (int i = from; i < to; i++) {
+                nextUpdate(i);
+            }
+            endChange();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mertblk.sensorui.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filter of the records table: an optional session and an optional start time
+ * ({@link Long#MIN_VALUE} for none), in a form both SQL and the in-memory sources can answer.
+ */
+record ReadingFilter(String sessionId, long fromMillis) {
+
+    String whereSql() {
+        StringBuilder filterSql = new StringBuilder("WHERE 1=1 ");
+        if (fromMillis != Long.MIN_VALUE) {
+            filterSql.append("AND timestamp >= ? ");
+        }
+        if (sessionId != null) {
+            filterSql.append("AND session_id = ? ");
+        }
+        return filterSql.toString();
+    }
+
+    List<Object> params() {
+        List<Object> params = new ArrayList<>();
+        if (fromMillis != Long.MIN_VALUE) {
+            params.add(fromMillis);
+        }
+        if (sessionId != null) {
+            params.add(sessionId);
+        }
+        return params;
+    }
+}
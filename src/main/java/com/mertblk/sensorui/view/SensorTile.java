@@ -0,0 +1,105 @@
+package com.mertblk.sensorui.view;
+
+import com.mertblk.sensorui.db.RollupBucket;
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorHistory;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ObservableBooleanValue;
+import javafx.beans.value.ObservableNumberValue;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Dashboard tile of one channel: its current value, a trend chart and the alarm colour. The value
+ * property only marks the tile dirty; the text is formatted in {@link #render}, which the view
+ * calls once per frame, so a tile is re-rendered at most once per frame however often it is told
+ * the value changed.
+ */
+class SensorTile extends VBox {
+
+    private static final String NORMAL_STYLE =
+            "-fx-background-color: #2a2a2a; -fx-padding: 20; -fx-border-radius: 8; -fx-background-radius: 8;";
+    private static final String ALARM_STYLE =
+            "-fx-background-color: #8B0000; -fx-padding: 20; -fx-border-radius: 8; -fx-background-radius: 8;";
+
+    private final SensorChannel channel;
+    private final ObservableNumberValue value;
+    private final ObservableBooleanValue available;
+    private final Label valueLabel = new Label("N/A");
+    private final TrendChart chart;
+    private boolean dirty = true;
+
+    SensorTile(SensorChannel channel, ObservableNumberValue value, ObservableBooleanValue available,
+               ObservableBooleanValue alarm) {
+        super(10);
+        this.channel = channel;
+        this.value = value;
+        this.available = available;
+        setAlignment(Pos.CENTER);
+        setStyle(NORMAL_STYLE);
+
+        Label titleLabel = new Label(channel.getTitle());
+        titleLabel.setFont(new Font("System Bold", 18));
+        titleLabel.setTextFill(Color.LIGHTGRAY);
+
+        valueLabel.setFont(new Font("System Regular", 24));
+        valueLabel.setTextFill(Color.WHITE);
+
+        // Invalidation listeners don't read the value back, so they fire once until render() does.
+        InvalidationListener markDirty = obs -> dirty = true;
+        value.addListener(markDirty);
+        available.addListener(markDirty);
+
+        // Any tile can turn red: it follows the alarm rules that read its channel, not its value
+        alarm.addListener((obs, wasAlarm, isAlarm) -> setStyle(isAlarm ? ALARM_STYLE : NORMAL_STYLE));
+
+        chart = new TrendChart(channel);
+        VBox.setVgrow(chart, Priority.ALWAYS);
+
+        getChildren().addAll(titleLabel, valueLabel, chart);
+    }
+
+    /**
+     * Brings the value text and the chart up to date. Cheap when nothing changed.
+     */
+    void render(SensorHistory history, long windowMillis) {
+        renderValue();
+        chart.update(history, windowMillis);
+    }
+
+    /**
+     * Like {@link #render(SensorHistory, long)}, with the chart drawn from rollup buckets.
+     */
+    void render(List<RollupBucket> buckets, long endMillis, long windowMillis) {
+        renderValue();
+        chart.update(buckets, endMillis, windowMillis);
+    }
+
+    private void renderValue() {
+        if (dirty) {
+            dirty = false;
+            String text = available.get() ? format(channel, value) : "N/A";
+            if (!text.equals(valueLabel.getText())) {
+                valueLabel.setText(text);
+            }
+        }
+    }
+
+    static String format(SensorChannel channel, ObservableNumberValue value) {
+        return switch (channel) {
+            case TEMPERATURE -> String.format(Locale.ROOT, "%.1f", value.floatValue());
+            case HUMIDITY -> "% " + value.intValue();
+            case LIGHT -> value.intValue() == 0 ? "Off" : "On";
+            case FIRE -> value.intValue() == 0 ? "Convenient" : "Hot";
+            case SOUND_1, SOUND_2 -> value.intValue() == 0 ? "Quiet" : "Noisy";
+            case SOUND_ALARM -> value.intValue() == 0 ? "Chill" : "Loud";
+        };
+    }
+}
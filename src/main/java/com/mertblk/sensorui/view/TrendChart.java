@@ -0,0 +1,226 @@
+package com.mertblk.sensorui.view;
+
+import com.mertblk.sensorui.db.RollupBucket;
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorHistory;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rolling chart of one channel drawn straight onto a canvas. The window is decimated to one
+ * min/max range per pixel column by {@link SensorHistory#decimate}, so drawing cost depends on the
+ * chart width only, never on how many samples the window holds. Windows longer than the history
+ * keeps are drawn from {@link RollupBucket rollup buckets} instead, each bucket's average standing
+ * in for its first and last value. {@link #update} is cheap to call every frame: it redraws only
+ * when new samples or buckets arrived or the size or window changed.
+ */
+class TrendChart extends Region {
+
+    private static final Color LINE_COLOR = Color.web("#4fc3f7");
+    private static final Color AXIS_COLOR = Color.web("#888888");
+    private static final Font AXIS_FONT = new Font("System Regular", 10);
+
+    private final SensorChannel channel;
+    private final Canvas canvas = new Canvas();
+
+    private float[] first = new float[0];
+    private float[] min = new float[0];
+    private float[] max = new float[0];
+    private float[] last = new float[0];
+
+    private Object drawnSource;
+    private long drawnSize = -1;
+    private long drawnWindow = -1;
+    private boolean dirty = true;
+
+    TrendChart(SensorChannel channel) {
+        this.channel = channel;
+        getChildren().add(canvas);
+        widthProperty().addListener((obs, oldWidth, newWidth) -> dirty = true);
+        heightProperty().addListener((obs, oldHeight, newHeight) -> dirty = true);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 200;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 60;
+    }
+
+    @Override
+    protected double computeMinHeight(double width) {
+        return 30;
+    }
+
+    @Override
+    protected double computeMinWidth(double height) {
+        return 50;
+    }
+
+    /**
+     * Redraws the chart if {@code history} (which may be {@code null}) changed since the last call.
+     */
+    void update(SensorHistory history, long windowMillis) {
+        if (!needsRedraw(history, history == null ? 0 : history.size(), windowMillis)) {
+            return;
+        }
+        int columns = clear();
+        if (columns > 0 && history != null && history.size() > 0
+                && history.decimate(channel, history.latestTimeMillis(), windowMillis, columns, first, min, max, last)) {
+            plot(columns);
+        }
+    }
+
+    /**
+     * Redraws the chart from {@code buckets} (oldest first, may be {@code null}) covering the
+     * {@code windowMillis} ending at {@code endMillis}, if they changed since the last call. A
+     * reloaded window must come as a new list.
+     */
+    void update(List<RollupBucket> buckets, long endMillis, long windowMillis) {
+        if (!needsRedraw(buckets, buckets == null ? 0 : buckets.size(), windowMillis)) {
+            return;
+        }
+        int columns = clear();
+        if (columns > 0 && buckets != null && decimate(buckets, endMillis, windowMillis, columns)) {
+            plot(columns);
+        }
+    }
+
+    private boolean needsRedraw(Object source, long size, long windowMillis) {
+        if (!dirty && source == drawnSource && size == drawnSize && windowMillis == drawnWindow) {
+            return false;
+        }
+        dirty = false;
+        drawnSource = source;
+        drawnSize = size;
+        drawnWindow = windowMillis;
+        return true;
+    }
+
+    /**
+     * Clears the canvas and returns the number of columns to fill, or 0 if it is too small to draw on.
+     */
+    private int clear() {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        canvas.getGraphicsContext2D().clearRect(0, 0, width, height);
+
+        int columns = (int) width;
+        if (columns < 2 || height < 4) {
+            return 0;
+        }
+        if (first.length < columns) {
+            first = new float[columns];
+            min = new float[columns];
+            max = new float[columns];
+            last = new float[columns];
+        }
+        return columns;
+    }
+
+    /**
+     * The bucket counterpart of {@link SensorHistory#decimate}: each bucket lands in the column
+     * its start falls into.
+     */
+    private boolean decimate(List<RollupBucket> buckets, long endMillis, long windowMillis, int columns) {
+        Arrays.fill(first, 0, columns, Float.NaN);
+        Arrays.fill(min, 0, columns, Float.NaN);
+        Arrays.fill(max, 0, columns, Float.NaN);
+        Arrays.fill(last, 0, columns, Float.NaN);
+        long startMillis = endMillis - windowMillis;
+        boolean any = false;
+        for (RollupBucket bucket : buckets) {
+            if (bucket.count() == 0) {
+                continue;
+            }
+            long offset = Math.max(0, bucket.bucketStart() - startMillis);
+            int column = (int) Math.min(columns - 1, offset * columns / windowMillis);
+            float average = (float) bucket.average(channel);
+            if (Float.isNaN(first[column])) {
+                first[column] = average;
+                min[column] = bucket.min(channel);
+                max[column] = bucket.max(channel);
+            } else {
+                min[column] = Math.min(min[column], bucket.min(channel));
+                max[column] = Math.max(max[column], bucket.max(channel));
+            }
+            last[column] = average;
+            any = true;
+        }
+        return any;
+    }
+
+    private void plot(int columns) {
+        double height = canvas.getHeight();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+
+        float low;
+        float high;
+        if (channel.isBinary()) {
+            low = 0;
+            high = 1;
+        } else {
+            low = Float.POSITIVE_INFINITY;
+            high = Float.NEGATIVE_INFINITY;
+            for (int x = 0; x < columns; x++) {
+                if (!Float.isNaN(min[x])) {
+                    low = Math.min(low, min[x]);
+                    high = Math.max(high, max[x]);
+                }
+            }
+            if (high - low < 1) {
+                float middle = (high + low) / 2;
+                low = middle - 0.5f;
+                high = middle + 0.5f;
+            }
+        }
+
+        double top = 4;
+        double plotHeight = height - 8;
+        double scale = plotHeight / (high - low);
+
+        gc.setStroke(LINE_COLOR);
+        gc.setLineWidth(1);
+        gc.beginPath();
+        boolean started = false;
+        for (int x = 0; x < columns; x++) {
+            if (Float.isNaN(first[x])) {
+                continue;
+            }
+            double px = x + 0.5;
+            double yFirst = top + (high - first[x]) * scale;
+            if (started) {
+                gc.lineTo(px, yFirst);
+            } else {
+                gc.moveTo(px, yFirst);
+                started = true;
+            }
+            gc.lineTo(px, top + (high - min[x]) * scale);
+            gc.lineTo(px, top + (high - max[x]) * scale);
+            gc.lineTo(px, top + (high - last[x]) * scale);
+        }
+        gc.stroke();
+
+        if (!channel.isBinary()) {
+            gc.setFill(AXIS_COLOR);
+            gc.setFont(AXIS_FONT);
+            gc.fillText(String.format("%.1f", high), 2, 12);
+            gc.fillText(String.format("%.1f", low), 2, height - 2);
+        }
+    }
+}
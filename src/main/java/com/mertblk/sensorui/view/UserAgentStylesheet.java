@@ -0,0 +1,125 @@
+package com.mertblk.sensorui.view;
+
+import io.github.palexdev.materialfx.theming.CSSFragment;
+import io.github.palexdev.materialfx.theming.JavaFXThemes;
+import io.github.palexdev.materialfx.theming.MaterialFXStylesheets;
+import io.github.palexdev.materialfx.theming.UserAgentBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * The Modena + MaterialFX user agent stylesheet. Assembling it with {@link UserAgentBuilder} deploys
+ * the theme assets and concatenates and post-processes some 150 kB of CSS, which took a noticeable
+ * part of startup on every launch. The result only depends on the library versions, so it is
+ * assembled once into a cache file and later launches just point JavaFX at that file.
+ */
+final class UserAgentStylesheet {
+
+    static final Path DEFAULT_DIRECTORY = Path.of("cache");
+
+    private static final String PREFIX = "user-agent-";
+    private static final String SUFFIX = ".css";
+    private static final Pattern FILE_URL = Pattern.compile("file:[^\"')\\s]+");
+
+    private UserAgentStylesheet() {
+    }
+
+    /**
+     * Returns the URL of the stylesheet, assembling it into {@code directory} first if there is no
+     * cached copy for the current libraries. Safe to call off the FX thread; falls back to an
+     * in-memory data URI if the cache can't be written.
+     */
+    static String load(Path directory) {
+        Path file = directory.resolve(PREFIX + cacheKey() + SUFFIX);
+        try {
+            if (Files.isRegularFile(file) && referencedFilesExist(Files.readString(file, StandardCharsets.UTF_8))) {
+                return file.toUri().toString();
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading cached stylesheet: " + e.getMessage());
+        }
+
+        String css = assemble();
+        try {
+            Files.createDirectories(directory);
+            deleteStale(directory);
+            Path temp = Files.createTempFile(directory, PREFIX, ".tmp");
+            Files.writeString(temp, css, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file.toUri().toString();
+        } catch (IOException e) {
+            System.err.println("Error caching stylesheet: " + e.getMessage());
+            return new CSSFragment(css).toDataUri();
+        }
+    }
+
+    private static String assemble() {
+        return UserAgentBuilder.builder()
+                .themes(JavaFXThemes.MODENA)
+                .themes(MaterialFXStylesheets.forAssemble(true))
+                .setDeploy(true)
+                .setResolveAssets(true)
+                .build()
+                .toString();
+    }
+
+    /**
+     * Identifies the JavaFX and MaterialFX builds in use, so an upgraded (or rebuilt, when shaded)
+     * jar gets a fresh stylesheet.
+     */
+    private static String cacheKey() {
+        StringBuilder key = new StringBuilder(System.getProperty("javafx.runtime.version", ""));
+        CodeSource source = UserAgentBuilder.class.getProtectionDomain().getCodeSource();
+        URL location = source == null ? null : source.getLocation();
+        if (location != null) {
+            key.append('|').append(location);
+            try {
+                Path jar = Path.of(location.toURI());
+                key.append('|').append(Files.size(jar)).append('|').append(Files.getLastModifiedTime(jar).toMillis());
+            } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+                // Not a plain file; the location alone has to do.
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(key.toString().getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Resolved assets live in the temp directory, which may have been cleared since the stylesheet
+     * was cached.
+     */
+    private static boolean referencedFilesExist(String css) {
+        Matcher matcher = FILE_URL.matcher(css);
+        while (matcher.find()) {
+            try {
+                if (!Files.exists(Path.of(new URI(matcher.group())))) {
+                    return false;
+                }
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void deleteStale(Path directory) throws IOException {
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, PREFIX + "*")) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
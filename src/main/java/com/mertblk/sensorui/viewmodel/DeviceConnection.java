@@ -0,0 +1,69 @@
+package com.mertblk.sensorui.viewmodel;
+
+import com.mertblk.sensorui.alarm.DeviceAlarms;
+import com.mertblk.sensorui.model.SensorData;
+import com.mertblk.sensorui.model.SensorHistory;
+import com.mertblk.sensorui.serial.SensorSource;
+
+/**
+ * One attached sensor board: its source, reader thread, the latest reading it produced, a
+ * rolling history for the trend charts and its alarm state.
+ * The reader thread is the only writer of {@link #publish}; the FX thread polls
+ * {@link #getVersion()} once per pulse to see whether there is anything new to show.
+ */
+class DeviceConnection {
+
+    private final String deviceId;
+    private final SensorSource source;
+    private final SensorHistory history = new SensorHistory(SensorHistory.DEFAULT_CAPACITY);
+    private final DeviceAlarms alarms;
+    private Thread readerThread;
+
+    private volatile SensorData latestReading;
+    private volatile long version = 0;
+
+    DeviceConnection(String deviceId, SensorSource source, DeviceAlarms alarms) {
+        this.deviceId = deviceId;
+        this.source = source;
+        this.alarms = alarms;
+    }
+
+    void start(Runnable reader) {
+        readerThread = new Thread(reader, "serial-reader-" + deviceId);
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    void close() {
+        source.close();
+    }
+
+    void publish(SensorData reading) {
+        latestReading = reading;
+        version++;
+    }
+
+    String getDeviceId() {
+        return deviceId;
+    }
+
+    SensorSource getSource() {
+        return source;
+    }
+
+    SensorHistory getHistory() {
+        return history;
+    }
+
+    DeviceAlarms getAlarms() {
+        return alarms;
+    }
+
+    SensorData getLatestReading() {
+        return latestReading;
+    }
+
+    long getVersion() {
+        return version;
+    }
+}
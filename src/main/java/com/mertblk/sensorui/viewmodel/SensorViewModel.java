@@ -1,88 +1,236 @@
 package com.mertblk.sensorui.viewmodel;
 
 import com.fazecast.jSerialComm.SerialPort;
+import com.mertblk.sensorui.alarm.AlarmEngine;
+import com.mertblk.sensorui.alarm.AlarmRule;
+import com.mertblk.sensorui.alarm.DeviceAlarms;
+import com.mertblk.sensorui.db.AlarmEventWriter;
 import com.mertblk.sensorui.db.DatabaseManager;
+import com.mertblk.sensorui.db.HotSessionCache;
+import com.mertblk.sensorui.db.SensorDataWriter;
+import com.mertblk.sensorui.metrics.IngestMetrics;
+import com.mertblk.sensorui.model.AlarmEvent;
+import com.mertblk.sensorui.model.SensorChannel;
 import com.mertblk.sensorui.model.SensorData;
 import com.mertblk.sensorui.model.SensorDataModel;
+import com.mertblk.sensorui.model.SensorHistory;
+import com.mertblk.sensorui.serial.BinaryFrameParser;
+import com.mertblk.sensorui.serial.FrameDecoder;
+import com.mertblk.sensorui.serial.FrameDecoders;
+import com.mertblk.sensorui.serial.ReadTimingInputStream;
+import com.mertblk.sensorui.serial.SensorSource;
+import com.mertblk.sensorui.serial.SensorSources;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 public class SensorViewModel {
 
+    public static final int DEFAULT_BAUD_RATE = 9600;
+    private static final int REDETECT_AFTER_MALFORMED = 16;
+
     private final SensorDataModel model = new SensorDataModel();
     private final StringProperty statusInfo = new SimpleStringProperty("Not Connected");
     private final ObservableList<String> portNames = FXCollections.observableArrayList();
     private final BooleanProperty connected = new SimpleBooleanProperty(false);
-    private SerialPort activePort;
+    private final Map<String, DeviceConnection> devices = new ConcurrentHashMap<>();
+    private final ObservableList<String> deviceIds = FXCollections.observableArrayList();
+    private final StringProperty selectedDevice = new SimpleStringProperty();
+    private final IntegerProperty baudRate = new SimpleIntegerProperty(DEFAULT_BAUD_RATE);
+
+    private volatile boolean isRecording = false;
+    private volatile String sessionId;
+    private volatile long startTime;
+
+    private final AlarmEngine alarmEngine = new AlarmEngine(AlarmRule.defaults());
+    private final Map<SensorChannel, ReadOnlyBooleanWrapper> channelAlarms = new EnumMap<>(SensorChannel.class);
+    private final ReadOnlyStringWrapper alarmMessage = new ReadOnlyStringWrapper("");
+    private volatile AlarmEvent latestAlarm;
+
+    // Each reader thread publishes its latest reading; the FX thread applies the selected device's at most once per pulse.
+    // Alarm state is polled the same way, so it shows on the next pulse however much else is queued for the FX thread.
+    private DeviceConnection shownDevice;
+    private long shownVersion = -1;
+    private DeviceConnection shownAlarmDevice;
+    private long shownAlarmVersion = -1;
+    private final AnimationTimer uiPulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            DeviceConnection device = selectedDevice.get() == null ? null : devices.get(selectedDevice.get());
+            if (device == null) {
+                return;
+            }
+            long alarmVersion = alarmEngine.getVersion();
+            if (device != shownAlarmDevice || alarmVersion != shownAlarmVersion) {
+                shownAlarmDevice = device;
+                shownAlarmVersion = alarmVersion;
+                applyAlarms(device.getAlarms());
+            }
+            long version = device.getVersion();
+            if (device != shownDevice || version != shownVersion) {
+                shownDevice = device;
+                shownVersion = version;
+                SensorData reading = device.getLatestReading();
+                if (reading != null) {
+                    model.update(reading);
+                }
+            }
+        }
+    };
 
-    private boolean isRecording = false;
-    private String sessionId;
-    private long startTime;
+    private record ListenerRegistration(Runnable listener, Executor executor) { }
 
-    private final List<Runnable> newDataAddedListeners = new ArrayList<>();
+    private final List<ListenerRegistration> newDataAddedListeners = new CopyOnWriteArrayList<>();
+    private final DatabaseManager database;
+    private final SensorDataWriter dataWriter;
+    private final HotSessionCache hotSessionCache = new HotSessionCache(HotSessionCache.DEFAULT_CAPACITY);
+    private final AlarmEventWriter alarmEventWriter;
 
-    public SensorViewModel() {
-        scanPorts();
+    public SensorViewModel(DatabaseManager database) {
+        this.database = database;
+        this.dataWriter = new SensorDataWriter(database, (batch, firstId) -> {
+            hotSessionCache.append(batch, firstId);
+            notifyNewDataListeners();
+        });
+        this.alarmEventWriter = new AlarmEventWriter(database);
+        for (SensorChannel channel : SensorChannel.values()) {
+            channelAlarms.put(channel, new ReadOnlyBooleanWrapper(false));
+        }
+        alarmEngine.addListener(alarmEventWriter::enqueue);
+        alarmEngine.addListener(event -> latestAlarm = event);
     }
 
     public void scanPorts() {
-        portNames.clear();
+        showPorts(findPortNames());
+    }
+
+    /**
+     * Names of the serial ports present. The first call loads jSerialComm's native library, so at
+     * startup this runs in the background; safe to call from any thread.
+     */
+    public static List<String> findPortNames() {
         SerialPort[] ports = SerialPort.getCommPorts();
+        List<String> names = new ArrayList<>(ports.length);
         for (SerialPort port : ports) {
-            portNames.add(port.getSystemPortName());
+            names.add(port.getSystemPortName());
         }
+        return names;
+    }
+
+    /**
+     * Offers {@code names} as the ports to connect to. Must be called on the FX thread.
+     */
+    public void showPorts(List<String> names) {
+        portNames.setAll(names);
         if (portNames.isEmpty()) {
-            statusInfo.set("No serial ports found.");
+            statusInfo.set("No serial ports found. Type tcp:host:port or file:path to use another source.");
         }
     }
 
+    /**
+     * Attaches a source as an additional device. {@code portName} is a serial port name or one of the
+     * forms understood by {@link SensorSources#create}. Sources that are already attached are left alone;
+     * every attached device feeds the same recording session. Serial ports are opened at the current
+     * {@link #baudRateProperty() baud rate}; the wire protocol is detected from the first bytes received.
+     */
     public void connectToPort(String portName) {
         if (portName == null || portName.isEmpty()) {
             statusInfo.set("No port selected.");
-            stopRecording();
+            if (devices.isEmpty()) {
+                stopRecording();
+            }
             return;
         }
 
-        if (activePort != null && activePort.isOpen()) {
-            disconnect();
+        if (devices.containsKey(portName)) {
+            statusInfo.set(portName + " is already connected.");
+            return;
         }
 
-        activePort = SerialPort.getCommPort(portName);
-        activePort.setBaudRate(9600);
-        activePort.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, 0, 0);
+        SensorSource source;
+        try {
+            source = SensorSources.create(portName, baudRate.get());
+            source.open();
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error connecting to " + portName + ": " + e.getMessage());
+            source = null;
+        }
 
-        if (activePort.openPort()) {
-            statusInfo.set("Connected to " + portName);
+        if (source != null) {
+            DeviceConnection device = new DeviceConnection(portName, source, alarmEngine.forDevice(portName));
+            devices.put(portName, device);
+            deviceIds.add(portName);
+            if (selectedDevice.get() == null) {
+                selectedDevice.set(portName);
+            }
+            statusInfo.set("Connected to " + String.join(", ", deviceIds));
             connected.set(true);
-            Thread dataReaderThread = new Thread(this::readData);
-            dataReaderThread.setDaemon(true);
-            dataReaderThread.start();
+            uiPulse.start();
+            device.start(() -> readData(device));
         } else {
             statusInfo.set("Failed to connect to " + portName);
-            stopRecording();
+            if (devices.isEmpty()) {
+                stopRecording();
+            }
         }
     }
 
     public void disconnect() {
         stopRecording();
-        if (activePort != null && activePort.isOpen()) {
-            activePort.closePort();
+        for (DeviceConnection device : devices.values()) {
+            device.close();
+        }
+        devices.clear();
+        deviceIds.clear();
+        selectedDevice.set(null);
+        shownDevice = null;
+        shownAlarmDevice = null;
+        uiPulse.stop();
+        for (ReadOnlyBooleanWrapper alarm : channelAlarms.values()) {
+            alarm.set(false);
         }
         statusInfo.set("Disconnected");
         connected.set(false);
     }
 
+    private void onDeviceLost(DeviceConnection device) {
+        if (devices.remove(device.getDeviceId(), device)) {
+            device.close();
+            deviceIds.remove(device.getDeviceId());
+            if (devices.isEmpty()) {
+                disconnect();
+                statusInfo.set("Connection lost: " + device.getDeviceId());
+            } else {
+                if (device.getDeviceId().equals(selectedDevice.get())) {
+                    selectedDevice.set(deviceIds.get(0));
+                }
+                statusInfo.set("Connection lost: " + device.getDeviceId() + " (still connected to " + String.join(", ", deviceIds) + ")");
+            }
+        }
+    }
+
     public boolean startRecording(String customSessionName) {
         String potentialSessionId;
         if (customSessionName == null || customSessionName.trim().isEmpty()) {
@@ -91,11 +239,12 @@ public class SensorViewModel {
             potentialSessionId = customSessionName.trim();
         }
 
-        if (DatabaseManager.doesSessionIdExist(potentialSessionId)) {
+        if (database.doesSessionIdExist(potentialSessionId)) {
             statusInfo.set("Error: Session name '" + potentialSessionId + "' already exists.");
             return false;
         }
 
+        hotSessionCache.reset(potentialSessionId);
         this.sessionId = potentialSessionId;
         this.startTime = System.nanoTime();
         this.isRecording = true;
@@ -106,94 +255,123 @@ public class SensorViewModel {
     public void stopRecording() {
         if (isRecording) {
             this.isRecording = false;
-            System.out.println("Stopped recording session: " + sessionId);
+            String stoppedSessionId = sessionId;
+            dataWriter.flushAsync().thenRun(() -> System.out.printf(
+                    "Stopped recording session: %s (last commit: %d rows in %.1f ms, dropped: %d)%n",
+                    stoppedSessionId, dataWriter.getLastBatchSize(), dataWriter.getLastCommitLatencyMillis(), dataWriter.getDroppedCount()));
         }
     }
 
-    private void readData() {
-        try (Scanner scanner = new Scanner(activePort.getInputStream())) {
-            while (scanner.hasNextLine() && activePort.isOpen()) {
-                String line = scanner.nextLine();
-                Platform.runLater(() -> parseAndProcessData(line));
+    /**
+     * Disconnects and blocks until every queued reading is committed. Meant for application exit,
+     * where the database is closed right afterwards.
+     */
+    public void shutdown() {
+        disconnect();
+        dataWriter.shutdown();
+        alarmEventWriter.shutdown();
+    }
+
+    private void readData(DeviceConnection device) {
+        SensorData frame = new SensorData();
+        try {
+            ReadTimingInputStream input = new ReadTimingInputStream(device.getSource().getInputStream());
+            FrameDecoder decoder = FrameDecoders.autoDetect(input);
+            System.out.println(device.getDeviceId() + " speaks the "
+                    + (decoder instanceof BinaryFrameParser ? "binary" : "text") + " protocol");
+            long lostFrames = 0;
+            int malformedInRow = 0;
+            while (device.getSource().isOpen()) {
+                FrameDecoder.Result result = decoder.next(frame);
+                if (result == FrameDecoder.Result.END_OF_STREAM) {
+                    break;
+                }
+                IngestMetrics.LINES_READ.increment();
+                if (result == FrameDecoder.Result.MALFORMED) {
+                    IngestMetrics.PARSE_FAILURES.increment();
+                    System.err.println("Skipping malformed frame from " + device.getDeviceId() + " (" + decoder.getMalformedCount() + " so far): " + decoder.describeLastFrame());
+                    // The first guess at the protocol (or the device itself) may have been wrong.
+                    if (++malformedInRow == REDETECT_AFTER_MALFORMED) {
+                        decoder = FrameDecoders.autoDetect(input);
+                        System.out.println(device.getDeviceId() + " re-detected as the "
+                                + (decoder instanceof BinaryFrameParser ? "binary" : "text") + " protocol");
+                        malformedInRow = 0;
+                        lostFrames = 0;
+                    }
+                    continue;
+                }
+                malformedInRow = 0;
+                IngestMetrics.SERIAL_TO_PARSE.recordSince(input.getLastReadNanos());
+                if (decoder.getLostFrameCount() != lostFrames) {
+                    IngestMetrics.FRAMES_LOST.add(decoder.getLostFrameCount() - lostFrames);
+                    System.err.println("Lost " + (decoder.getLostFrameCount() - lostFrames) + " frame(s) from " + device.getDeviceId()
+                            + " (" + decoder.getLostFrameCount() + " so far)");
+                    lostFrames = decoder.getLostFrameCount();
+                }
+                processData(device, frame.copy());
             }
         } catch (Exception e) {
-            Platform.runLater(this::disconnect);
-        }
-    }
-
-    private void parseAndProcessData(String dataLine) {
-        SensorData currentData = new SensorData();
-        String[] parts = dataLine.split(",");
-
-        // Temperature
-        model.setTemperature(parts[1]);
-        currentData.setTemperature(Float.parseFloat(parts[1]));
-
-        //Fire Alarm
-        int fireAlarmData = Integer.parseInt(parts[2]);
-        String fireAlarm;
-        if(fireAlarmData == 0) fireAlarm = "Convenient";
-        else fireAlarm = "Hot";
-        model.setFireAlarm(fireAlarm);
-        currentData.setFire(fireAlarmData);
-
-        //Humidity
-        float humidityData = Float.parseFloat(parts[3]);
-        String humidity = "% " + humidityData;
-        model.setHumidity(humidity);
-        currentData.setHumidity((int) humidityData);
-
-        //Light
-        int lightData = Integer.parseInt(parts[4]);
-        String light;
-        if(lightData == 0) light = "Off";
-        else light = "On";
-        model.setLight(light);
-        currentData.setLight(lightData);
-
-        //Sound 1
-        int sound1Data = Integer.parseInt(parts[5]);
-        String sound1;
-        if(sound1Data == 0) sound1 = "Quite";
-        else sound1 = "Noisy";
-        model.setSound1(sound1);
-        currentData.setS1(sound1Data);
-
-        //Sound 2
-        int sound2Data = Integer.parseInt(parts[6]);
-        String sound2;
-        if(sound2Data == 0) sound2 = "Quite";
-        else sound2 = "Noisy";
-        model.setSound2(sound2);
-        currentData.setS2(sound2Data);
-
-        //Sound Alarm
-        int soundAlarmData = Integer.parseInt(parts[7]);
-        String soundAlarm;
-        if(soundAlarmData == 0) soundAlarm = "Chill";
-        else soundAlarm = "Loud";
-        model.setSoundAlarm(soundAlarm);
-        currentData.setSa(soundAlarmData);
-
+            if (devices.get(device.getDeviceId()) == device) {
+                System.err.println("Error reading from " + device.getDeviceId() + ": " + e.getMessage());
+            }
+        }
+        // A no-op when the device was closed by disconnect(); otherwise the source failed or a replay ended.
+        Platform.runLater(() -> onDeviceLost(device));
+    }
 
+    /**
+     * Runs on the device's reader thread for every frame: the alarm rules are evaluated first, then the
+     * reading is queued for persistence, added to the device's trend history and published as its latest
+     * value for the next UI pulse.
+     */
+    private void processData(DeviceConnection device, SensorData currentData) {
+        long now = System.currentTimeMillis();
+        long evaluationStart = System.nanoTime();
+        device.getAlarms().evaluate(now, currentData, isRecording ? sessionId : null);
+        IngestMetrics.ALARM_EVALUATION.recordSince(evaluationStart);
+
+        device.getHistory().append(now, currentData);
         if (isRecording) {
             double elapsedSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
-            DatabaseManager.saveSensorData(sessionId, elapsedSeconds, currentData);
-            notifyNewDataListeners();
+            dataWriter.enqueue(sessionId, device.getDeviceId(), elapsedSeconds, currentData);
         }
+        device.publish(currentData);
     }
 
+    private void applyAlarms(DeviceAlarms alarms) {
+        for (Map.Entry<SensorChannel, ReadOnlyBooleanWrapper> entry : channelAlarms.entrySet()) {
+            entry.getValue().set(alarms.isInAlarm(entry.getKey()));
+        }
+        AlarmEvent event = latestAlarm;
+        if (event != null) {
+            alarmMessage.set((event.raised() ? "Alarm: " : "Cleared: ") + event.rule() + " on " + event.deviceId()
+                    + " (" + event.values() + ")");
+        }
+    }
+
+    /**
+     * Registers a listener that is called on the FX thread after each batch of new readings is committed.
+     */
     public void addOnNewDataListener(Runnable listener) {
-        newDataAddedListeners.add(listener);
+        addOnNewDataListener(listener, Platform::runLater);
+    }
+
+    /**
+     * Registers a listener that is called through {@code executor} after each batch of new readings
+     * is committed. Notifications are dispatched from the persistence thread, so the executor should
+     * hand off rather than run slow work inline.
+     */
+    public void addOnNewDataListener(Runnable listener, Executor executor) {
+        newDataAddedListeners.add(new ListenerRegistration(listener, executor));
     }
 
     public void removeOnNewDataListener(Runnable listener) {
-        newDataAddedListeners.remove(listener);
+        newDataAddedListeners.removeIf(registration -> registration.listener() == listener);
     }
 
     private void notifyNewDataListeners() {
-        for (Runnable listener : newDataAddedListeners) {
-            listener.run();
+        for (ListenerRegistration registration : newDataAddedListeners) {
+            registration.executor().execute(registration.listener());
         }
     }
 
@@ -201,6 +379,36 @@ public class SensorViewModel {
         return isRecording ? sessionId : null;
     }
 
+    /**
+     * The latest committed rows of the session being recorded (or, after it stops, the last one
+     * recorded), so views of the live session never have to go to the database.
+     */
+    public HotSessionCache getHotSessionCache() {
+        return hotSessionCache;
+    }
+
+    /**
+     * Whether an active alarm of the device shown on the dashboard involves {@code channel}.
+     */
+    public ReadOnlyBooleanProperty alarmProperty(SensorChannel channel) {
+        return channelAlarms.get(channel).getReadOnlyProperty();
+    }
+
+    /**
+     * The most recent alarm raised or cleared on any device.
+     */
+    public ReadOnlyStringProperty alarmMessageProperty() {
+        return alarmMessage.getReadOnlyProperty();
+    }
+
+    public AlarmEngine getAlarmEngine() {
+        return alarmEngine;
+    }
+
+    public SensorDataWriter getDataWriter() {
+        return dataWriter;
+    }
+
     public SensorDataModel getModel() {
         return model;
     }
@@ -216,4 +424,28 @@ public class SensorViewModel {
     public BooleanProperty connectedProperty() {
         return connected;
     }
+
+    public ObservableList<String> getDeviceIds() {
+        return deviceIds;
+    }
+
+    /**
+     * Baud rate used for ports connected from now on; already attached devices keep theirs.
+     */
+    public IntegerProperty baudRateProperty() {
+        return baudRate;
+    }
+
+    /**
+     * Trend history of the device shown on the dashboard, or {@code null} if none is connected.
+     */
+    public SensorHistory getSelectedHistory() {
+        String deviceId = selectedDevice.get();
+        DeviceConnection device = deviceId == null ? null : devices.get(deviceId);
+        return device == null ? null : device.getHistory();
+    }
+
+    public StringProperty selectedDeviceProperty() {
+        return selectedDevice;
+    }
 }
@@ -4,10 +4,12 @@ module com.mertblk.sensorui {
     requires com.fazecast.jSerialComm;
     requires javafx.fxml;
     requires java.sql;
+    requires java.management;
     requires org.apache.poi.ooxml;
 
     opens com.mertblk.sensorui.view to javafx.graphics;
     opens com.mertblk.sensorui.model to javafx.base;
 
     exports com.mertblk.sensorui;
+    exports com.mertblk.sensorui.metrics to java.management;
 }
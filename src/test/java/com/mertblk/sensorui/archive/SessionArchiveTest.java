@@ -0,0 +1,93 @@
+package com.mertblk.sensorui.archive;
+
+import com.mertblk.sensorui.model.SensorReading;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsRowsIncludingLastPartialBlock() throws IOException {
+        List<SensorReading> rows = rows(3 * ArchiveFormat.BLOCK_ROWS + 37);
+        Path file = write(rows);
+
+        try (SessionArchive archive = SessionArchive.open(file)) {
+            assertEquals("session-1", archive.getSessionId());
+            assertEquals(rows.size(), archive.size());
+            for (int i = 0; i < rows.size(); i++) {
+                assertEquals(rows.get(i), archive.get(i), "row " + i);
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> archive.get(rows.size()));
+        }
+    }
+
+    @Test
+    void streamsNewestFirst() throws IOException {
+        List<SensorReading> rows = rows(2 * ArchiveFormat.BLOCK_ROWS);
+        Path file = write(rows);
+
+        List<SensorReading> streamed = new ArrayList<>();
+        try (SessionArchive archive = SessionArchive.open(file)) {
+            archive.forEach(reading -> streamed.add(reading));
+        }
+
+        assertEquals(rows.reversed(), streamed);
+    }
+
+    @Test
+    void findsFirstRowAtOrAfterTimestamp() throws IOException {
+        List<SensorReading> rows = rows(2 * ArchiveFormat.BLOCK_ROWS + 10);
+        Path file = write(rows);
+
+        try (SessionArchive archive = SessionArchive.open(file)) {
+            assertEquals(0, archive.indexAtOrAfter(0));
+            assertEquals(300, archive.indexAtOrAfter(rows.get(300).timestampMillis()));
+            assertEquals(ArchiveFormat.BLOCK_ROWS, archive.indexAtOrAfter(rows.get(ArchiveFormat.BLOCK_ROWS - 1).timestampMillis() + 1));
+            assertEquals(rows.size(), archive.indexAtOrAfter(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void emptySessionHasNoRows() throws IOException {
+        Path file = write(List.of());
+
+        try (SessionArchive archive = SessionArchive.open(file)) {
+            assertEquals(0, archive.size());
+            archive.forEach(reading -> fail("unexpected row " + reading));
+        }
+    }
+
+    private Path write(List<SensorReading> rows) throws IOException {
+        Path file = directory.resolve("session.sarc");
+        try (SessionArchiveWriter writer = new SessionArchiveWriter(file, "session-1")) {
+            for (SensorReading row : rows) {
+                writer.write(row);
+            }
+            writer.finish();
+        }
+        return file;
+    }
+
+    private static List<SensorReading> rows(int count) {
+        List<SensorReading> rows = new ArrayList<>(count);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            // One block gets a temperature that does not fit 1/100 °C, so it is stored as raw floats.
+            float temperature = i == ArchiveFormat.BLOCK_ROWS + 5 ? 21.123f : (2000 + i % 300 - 150) / 100f;
+            rows.add(new SensorReading(i + 1, "session-1", i % 3 == 0 ? "COM3" : "tcp:10.0.0.2:5000",
+                    start + i * 250L + (i % 4), i * 0.25, temperature, 40 + i % 20,
+                    i % 1024, i % 2, (i / 2) % 2, 0, i % 5 == 0 ? 1 : 0));
+        }
+        return rows;
+    }
+}
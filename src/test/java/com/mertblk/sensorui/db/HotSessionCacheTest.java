@@ -0,0 +1,166 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.SensorData;
+import com.mertblk.sensorui.model.SensorReading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotSessionCacheTest {
+
+    private static final String SESSION = "hot";
+    private static final String WHERE_SQL = "WHERE session_id = ? AND timestamp >= ? ";
+
+    @TempDir
+    Path directory;
+
+    private DatabaseManager database;
+    private final Random random = new Random(7);
+    private long clock = 1_700_000_000_000L;
+
+    @BeforeEach
+    void setUp() {
+        database = new DatabaseManager("jdbc:sqlite:" + directory.resolve("test.db"));
+        database.initializeDatabase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void matchesDatabaseWhileSessionFits() throws SQLException {
+        HotSessionCache cache = new HotSessionCache(1024);
+        cache.reset(SESSION);
+        writeBatches(cache, 20, 25);
+
+        for (long fromMillis : fromTimes()) {
+            assertNotNull(cache.count(SESSION, fromMillis));
+            assertTrue(assertMatchesDatabase(cache, fromMillis) > 0);
+        }
+    }
+
+    @Test
+    void matchesDatabaseAfterEviction() throws SQLException {
+        HotSessionCache cache = new HotSessionCache(128);
+        cache.reset(SESSION);
+        writeBatches(cache, 40, 25);
+
+        assertNull(cache.count(SESSION, Long.MIN_VALUE));
+        assertNull(cache.page(SESSION, Long.MIN_VALUE, 0, 1000));
+        int compared = 0;
+        for (long fromMillis : fromTimes()) {
+            compared += assertMatchesDatabase(cache, fromMillis);
+        }
+        assertTrue(compared > 0);
+    }
+
+    @Test
+    void matchesDatabaseAfterRetentionEviction() throws SQLException {
+        HotSessionCache cache = new HotSessionCache(1024);
+        cache.reset(SESSION);
+        writeBatches(cache, 20, 25);
+        long cutoff = clock - 20_000;
+
+        cache.evictOlderThan(cutoff);
+        database.deleteReadingsBefore(cutoff, Integer.MAX_VALUE);
+
+        assertTrue(assertMatchesDatabase(cache, Long.MIN_VALUE) > 0);
+        assertTrue(assertMatchesDatabase(cache, cutoff) > 0);
+    }
+
+    @Test
+    void ignoresOtherSessions() {
+        HotSessionCache cache = new HotSessionCache(64);
+        cache.reset(SESSION);
+        writeBatches(cache, 2, 10);
+
+        assertNull(cache.count("other", Long.MIN_VALUE));
+        assertNull(cache.page("other", Long.MIN_VALUE, null, 10));
+    }
+
+    /**
+     * Compares every count and page the cache answers with the database.
+     *
+     * @return the number of pages compared
+     */
+    private int assertMatchesDatabase(HotSessionCache cache, long fromMillis) throws SQLException {
+        int compared = 0;
+        List<Object> params = List.of(SESSION, fromMillis);
+        ReadingCount cached = cache.count(SESSION, fromMillis);
+        if (cached != null) {
+            assertEquals(database.countSensorReadings(WHERE_SQL, params, null), cached, "count from " + fromMillis);
+        }
+
+        // Walk the keyset pages until the cache can no longer answer.
+        SensorReading after = null;
+        while (true) {
+            List<SensorReading> page = cache.page(SESSION, fromMillis, after, 17);
+            if (page == null) {
+                break;
+            }
+            assertEquals(database.getSensorReadingsPage(WHERE_SQL, params, after, 17, null), page, "page after " + after);
+            compared++;
+            if (page.size() < 17) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+
+        for (int offset = 0; ; offset += 17) {
+            List<SensorReading> page = cache.page(SESSION, fromMillis, offset, 17);
+            if (page == null) {
+                break;
+            }
+            assertEquals(database.getSensorReadingsPage(WHERE_SQL, params, offset, 17, null), page, "page at " + offset);
+            compared++;
+            if (page.isEmpty()) {
+                break;
+            }
+        }
+        return compared;
+    }
+
+    /**
+     * Commits {@code batches} batches through the database and hands each to the cache, the way
+     * the write-behind stage does. Batches mix in another session and, now and then, a row with an
+     * older timestamp than the ones before it.
+     */
+    private void writeBatches(HotSessionCache cache, int batches, int batchSize) {
+        for (int b = 0; b < batches; b++) {
+            List<PendingReading> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                clock += random.nextInt(400);
+                long timestamp = random.nextInt(10) == 0 ? clock - random.nextInt(2_000) : clock;
+                String session = random.nextInt(5) == 0 ? "other" : SESSION;
+                SensorData data = new SensorData();
+                data.setTemperature((2000 + random.nextInt(1000)) / 100f);
+                data.setHumidity(random.nextInt(100));
+                data.setLight(random.nextInt(1024));
+                data.setFire(random.nextInt(2));
+                data.setS1(random.nextInt(2));
+                data.setS2(random.nextInt(2));
+                data.setSa(random.nextInt(2));
+                batch.add(new PendingReading(session, random.nextBoolean() ? "COM3" : "COM4", timestamp,
+                        b * batchSize + i, data, 0));
+            }
+            long firstId = database.saveSensorDataBatch(batch);
+            assertTrue(firstId > 0);
+            cache.append(batch, firstId);
+        }
+    }
+
+    private long[] fromTimes() {
+        return new long[]{Long.MIN_VALUE, clock - 60_000, clock - 5_000, clock, clock + 1};
+    }
+}
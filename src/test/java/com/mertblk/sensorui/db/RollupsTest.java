@@ -0,0 +1,127 @@
+package com.mertblk.sensorui.db;
+
+import com.mertblk.sensorui.model.SensorChannel;
+import com.mertblk.sensorui.model.SensorData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupsTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void incrementalRollupsMatchBackfill() throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("test.db");
+        long end = writeReadings(url);
+
+        List<List<RollupBucket>> incremental = queryAll(url, end);
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                stmt.execute("DELETE FROM " + resolution.getTable());
+            }
+        }
+        // Opening a database with readings but empty rollup tables rebuilds them from the raw rows.
+        List<List<RollupBucket>> backfilled = queryAll(url, end);
+
+        assertEquals(incremental.size(), backfilled.size());
+        for (int i = 0; i < incremental.size(); i++) {
+            assertFalse(incremental.get(i).isEmpty());
+            assertBucketsEqual(backfilled.get(i), incremental.get(i));
+        }
+    }
+
+    @Test
+    void bucketBoundsFollowResolution() {
+        assertEquals(START - START % 1_000, RollupResolution.SECOND.bucketOf(START + 999 - START % 1_000));
+        assertEquals(-60_000, RollupResolution.MINUTE.bucketOf(-1));
+        assertEquals(RollupResolution.SECOND, RollupResolution.forRange(0, 1_000_000, 1_000));
+        assertEquals(RollupResolution.MINUTE, RollupResolution.forRange(0, 1_000_001, 1_000));
+        assertEquals(RollupResolution.HOUR, RollupResolution.forRange(0, Long.MAX_VALUE / 2, 10));
+    }
+
+    /**
+     * Writes two interleaved devices in batches, with gaps both shorter and longer than
+     * {@link Rollups#MAX_ON_GAP_MILLIS}, and returns the end of the written range.
+     */
+    private static long writeReadings(String url) {
+        DatabaseManager database = new DatabaseManager(url);
+        database.initializeDatabase();
+        try {
+            Random random = new Random(3);
+            long clock = START;
+            for (int b = 0; b < 60; b++) {
+                List<PendingReading> batch = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    clock += random.nextInt(20) == 0 ? 30_000 : random.nextInt(700);
+                    SensorData data = new SensorData();
+                    data.setTemperature((1500 + random.nextInt(1500)) / 100f);
+                    data.setHumidity(random.nextInt(100));
+                    data.setLight(random.nextInt(1024));
+                    data.setFire(random.nextInt(4) == 0 ? 1 : 0);
+                    data.setS1(random.nextInt(2));
+                    data.setS2(random.nextInt(2));
+                    data.setSa(random.nextInt(2));
+                    batch.add(new PendingReading("s" + b / 20, i % 3 == 0 ? "COM4" : "COM3", clock, 0, data, 0));
+                }
+                assertTrue(database.saveSensorDataBatch(batch) > 0);
+            }
+            return clock + 1;
+        } finally {
+            database.close();
+        }
+    }
+
+    /**
+     * Every resolution, for all devices combined and for each device.
+     */
+    private static List<List<RollupBucket>> queryAll(String url, long end) {
+        DatabaseManager database = new DatabaseManager(url);
+        database.initializeDatabase();
+        try {
+            List<List<RollupBucket>> results = new ArrayList<>();
+            for (int maxBuckets : new int[]{100_000, 1_000, 10}) {
+                for (String device : Arrays.asList(null, "COM3", "COM4")) {
+                    results.add(database.getRollups(device, START, end, maxBuckets));
+                }
+            }
+            return results;
+        } finally {
+            database.close();
+        }
+    }
+
+    private static void assertBucketsEqual(List<RollupBucket> expected, List<RollupBucket> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            RollupBucket e = expected.get(i);
+            RollupBucket a = actual.get(i);
+            String where = e.resolution() + " bucket " + e.bucketStart();
+            assertEquals(e.bucketStart(), a.bucketStart(), where);
+            assertEquals(e.resolution(), a.resolution(), where);
+            assertEquals(e.count(), a.count(), where);
+            for (SensorChannel channel : SensorChannel.values()) {
+                assertEquals(e.min(channel), a.min(channel), where + " " + channel);
+                assertEquals(e.max(channel), a.max(channel), where + " " + channel);
+                // Batches add up their sums separately, so the last bits may differ.
+                assertEquals(e.average(channel), a.average(channel), 1e-6, where + " " + channel);
+                assertEquals(e.onMillis(channel), a.onMillis(channel), where + " " + channel);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.mertblk.sensorui.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipEncoderTest {
+
+    @Test
+    void outputDecodesWithGzipInputStream() throws IOException {
+        byte[] input = new byte[3 << 20];
+        Random random = new Random(42);
+        for (int i = 0; i < input.length; i++) {
+            // Compressible, but not so much that the output fits in one buffer.
+            input[i] = (byte) (i % 7 == 0 ? random.nextInt(256) : 'a' + i % 26);
+        }
+
+        byte[] compressed = encode(input, 64 * 1024);
+
+        assertArrayEquals(input, decode(compressed));
+    }
+
+    @Test
+    void emptyInputIsValidGzip() throws IOException {
+        assertArrayEquals(new byte[0], decode(encode(new byte[0], 1024)));
+    }
+
+    private static byte[] encode(byte[] input, int chunkSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer chunk = ByteBuffer.allocateDirect(chunkSize);
+        try (GzipEncoder gzip = new GzipEncoder(Channels.newChannel(out))) {
+            for (int offset = 0; offset < input.length; offset += chunkSize) {
+                chunk.clear();
+                chunk.put(input, offset, Math.min(chunkSize, input.length - offset));
+                chunk.flip();
+                gzip.write(chunk);
+                assertFalse(chunk.hasRemaining());
+            }
+            gzip.finish();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decode(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mertblk.sensorui.serial;
+
+import com.mertblk.sensorui.model.SensorData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFrameTest {
+
+    @Test
+    void crcMatchesCcittFalseCheckValue() {
+        byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x29B1, BinaryFrame.crc16(check, 0, check.length));
+    }
+
+    @Test
+    void decodesEncodedFrames() throws IOException {
+        byte[] stream = new byte[2 * BinaryFrame.FRAME_LENGTH];
+        BinaryFrame.encode(7, reading(21.25f, 48, 1), stream, 0);
+        BinaryFrame.encode(8, reading(-4.5f, 90, 0), stream, BinaryFrame.FRAME_LENGTH);
+        BinaryFrameParser parser = new BinaryFrameParser(new ByteArrayInputStream(stream));
+        SensorData data = new SensorData();
+
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(21.25f, data.getTemperature());
+        assertEquals(48, data.getHumidity());
+        assertEquals(1, data.getFire());
+        assertEquals(1, data.getSa());
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(-4.5f, data.getTemperature());
+        assertEquals(0, data.getFire());
+        assertEquals(FrameDecoder.Result.END_OF_STREAM, parser.next(data));
+        assertEquals(0, parser.getLostFrameCount());
+    }
+
+    @Test
+    void resynchronizesAfterCorruptFrame() throws IOException {
+        byte[] stream = new byte[3 * BinaryFrame.FRAME_LENGTH];
+        BinaryFrame.encode(1, reading(20f, 40, 0), stream, 0);
+        BinaryFrame.encode(2, reading(30f, 50, 1), stream, BinaryFrame.FRAME_LENGTH);
+        BinaryFrame.encode(3, reading(25f, 60, 0), stream, 2 * BinaryFrame.FRAME_LENGTH);
+        stream[BinaryFrame.FRAME_LENGTH + 4] ^= 0x10;
+        BinaryFrameParser parser = new BinaryFrameParser(new SensorLineParserTest.OneByteInputStream(stream));
+        SensorData data = new SensorData();
+
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(20f, data.getTemperature());
+
+        FrameDecoder.Result result;
+        while ((result = parser.next(data)) == FrameDecoder.Result.MALFORMED) {
+            // skip past the corrupt frame
+        }
+        assertEquals(FrameDecoder.Result.FRAME, result);
+        assertEquals(25f, data.getTemperature());
+        assertEquals(60, data.getHumidity());
+        assertEquals(FrameDecoder.Result.END_OF_STREAM, parser.next(data));
+        assertTrue(parser.getMalformedCount() >= 1);
+        assertEquals(1, parser.getLostFrameCount());
+    }
+
+    private static SensorData reading(float temperature, int humidity, int flags) {
+        SensorData data = new SensorData();
+        data.setTemperature(temperature);
+        data.setHumidity(humidity);
+        data.setFire(flags);
+        data.setLight(0);
+        data.setS1(0);
+        data.setS2(0);
+        data.setSa(1);
+        return data;
+    }
+}
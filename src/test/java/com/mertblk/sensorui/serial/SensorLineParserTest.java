@@ -0,0 +1,120 @@
+package com.mertblk.sensorui.serial;
+
+import com.mertblk.sensorui.model.SensorData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorLineParserTest {
+
+    @Test
+    void parsesValidLine() throws IOException {
+        SensorLineParser parser = parser("DUMMY,21.5,1,45.0,300,0,1,0\r\n");
+        SensorData data = new SensorData();
+
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(21.5f, data.getTemperature());
+        assertEquals(1, data.getFire());
+        assertEquals(45, data.getHumidity());
+        assertEquals(300, data.getLight());
+        assertEquals(0, data.getS1());
+        assertEquals(1, data.getS2());
+        assertEquals(0, data.getSa());
+        assertEquals(FrameDecoder.Result.END_OF_STREAM, parser.next(data));
+    }
+
+    @Test
+    void parsesSignedAndPaddedFields() throws IOException {
+        SensorLineParser parser = parser("X, -3.25 ,+0,50,1,2,3,4\n");
+        SensorData data = new SensorData();
+
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(-3.25f, data.getTemperature());
+        assertEquals(50, data.getHumidity());
+        assertEquals(4, data.getSa());
+    }
+
+    @Test
+    void reportsMalformedLinesAndKeepsReading() throws IOException {
+        SensorLineParser parser = parser(
+                "DUMMY,21.5,1,45,300,0,1\n" +          // too few fields
+                "DUMMY,21.5,1,45,300,0,1,0,9\n" +      // too many fields
+                "DUMMY,2x.5,1,45,300,0,1,0\n" +        // bad decimal
+                "DUMMY,21.5,1,45,,0,1,0\n" +           // empty integer
+                "DUMMY,21.5,1,45,99999999999,0,1,0\n" + // integer overflow
+                "DUMMY,22.0,0,40,100,1,1,1\n");
+        SensorData data = new SensorData();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FrameDecoder.Result.MALFORMED, parser.next(data), "line " + i);
+        }
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(22.0f, data.getTemperature());
+        assertEquals(5, parser.getMalformedCount());
+        assertEquals("DUMMY,22.0,0,40,100,1,1,1", parser.describeLastFrame());
+    }
+
+    @Test
+    void rejectsOverlongLine() throws IOException {
+        SensorLineParser parser = parser("DUMMY," + "1".repeat(300) + ",1,45,300,0,1,0\nDUMMY,1,0,2,3,0,0,0\n");
+        SensorData data = new SensorData();
+
+        assertEquals(FrameDecoder.Result.MALFORMED, parser.next(data));
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(1f, data.getTemperature());
+    }
+
+    @Test
+    void joinsLinesSplitAcrossReads() throws IOException {
+        byte[] bytes = "DUMMY,21.5,1,45,300,0,1,0\nDUMMY,-1.75,0,60,5,1,0,1\n".getBytes(StandardCharsets.US_ASCII);
+        SensorLineParser parser = new SensorLineParser(new OneByteInputStream(bytes));
+        SensorData data = new SensorData();
+
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(21.5f, data.getTemperature());
+        assertEquals(FrameDecoder.Result.FRAME, parser.next(data));
+        assertEquals(-1.75f, data.getTemperature());
+        assertEquals(60, data.getHumidity());
+        assertEquals(FrameDecoder.Result.END_OF_STREAM, parser.next(data));
+        assertEquals(0, parser.getMalformedCount());
+    }
+
+    private static SensorLineParser parser(String input) {
+        return new SensorLineParser(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Hands out one byte per read, like a slow serial port.
+     */
+    static class OneByteInputStream extends InputStream {
+
+        private final byte[] bytes;
+        private int position;
+
+        OneByteInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return position < bytes.length ? bytes[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position == bytes.length) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            b[off] = bytes[position++];
+            return 1;
+        }
+    }
+}